@@ -0,0 +1,279 @@
+package me.adda.mcwebapi.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <ModuleClass>_ApiTable} for every {@code @ApiModule} class. The table calls
+ * each {@code @ApiMethod} directly, decoding arguments with the typed helpers from
+ * {@code ApiArguments} straight into primitives, and carries the annotation values so the
+ * runtime never has to scan or reflect on the module. Parameter types without a decoder are
+ * reported as compile errors.
+ */
+@SupportedAnnotationTypes(ApiModuleProcessor.API_MODULE)
+public class ApiModuleProcessor extends AbstractProcessor {
+    static final String API_MODULE = "me.adda.mcwebapi.api.annotations.ApiModule";
+    static final String API_METHOD = "me.adda.mcwebapi.api.annotations.ApiMethod";
+
+    private static final String API_PACKAGE = "me.adda.mcwebapi.api.";
+    private static final String TABLE_SUFFIX = "_ApiTable";
+
+    // Тип параметра -> декодер из ApiArguments
+    private static final Map<String, String> DECODERS = new LinkedHashMap<>();
+
+    static {
+        DECODERS.put("int", "toInt");
+        DECODERS.put("long", "toLong");
+        DECODERS.put("double", "toDouble");
+        DECODERS.put("float", "toFloat");
+        DECODERS.put("boolean", "toBoolean");
+        DECODERS.put("java.lang.Integer", "toIntegerOrNull");
+        DECODERS.put("java.lang.Long", "toLongOrNull");
+        DECODERS.put("java.lang.Double", "toDoubleOrNull");
+        DECODERS.put("java.lang.Float", "toFloatOrNull");
+        DECODERS.put("java.lang.Boolean", "toBooleanOrNull");
+        DECODERS.put("java.lang.String", "toStringArg");
+        DECODERS.put("java.util.UUID", "toUuid");
+        DECODERS.put("net.minecraft.resources.ResourceLocation", "toResourceLocation");
+        DECODERS.put("net.minecraft.core.BlockPos", "toBlockPos");
+        DECODERS.put("com.fasterxml.jackson.databind.JsonNode", "arg");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement apiModule = processingEnv.getElementUtils().getTypeElement(API_MODULE);
+        if (apiModule == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(apiModule)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@ApiModule can only be applied to classes");
+                continue;
+            }
+            generateTable((TypeElement) element);
+        }
+        return true;
+    }
+
+    private void generateTable(TypeElement module) {
+        if (module.getNestingKind() != NestingKind.TOP_LEVEL) {
+            error(module, "@ApiModule classes must be top-level");
+            return;
+        }
+        if (module.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(module, "@ApiModule classes must not be abstract");
+            return;
+        }
+
+        List<String> invokers = new ArrayList<>();
+        Map<String, ExecutableElement> names = new LinkedHashMap<>();
+        boolean valid = true;
+
+        for (ExecutableElement method : ElementFilter.methodsIn(module.getEnclosedElements())) {
+            AnnotationMirror apiMethod = findAnnotation(method, API_METHOD);
+            if (apiMethod == null) {
+                continue;
+            }
+
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                error(method, "@ApiMethod methods must be public instance methods");
+                valid = false;
+                continue;
+            }
+
+            String name = stringValue(apiMethod, "value");
+            if (name.isEmpty()) {
+                name = method.getSimpleName().toString();
+            }
+
+            ExecutableElement previous = names.put(name.toLowerCase(Locale.ROOT), method);
+            if (previous != null) {
+                error(method, "Duplicate @ApiMethod name '" + name + "', already used by " + previous.getSimpleName());
+                valid = false;
+                continue;
+            }
+
+            String invoker = generateInvoker(name, method, apiMethod);
+            if (invoker == null) {
+                valid = false;
+                continue;
+            }
+            invokers.add(invoker);
+        }
+
+        if (valid) {
+            writeTable(module, invokers);
+        }
+    }
+
+    private String generateInvoker(String name, ExecutableElement method, AnnotationMirror apiMethod) {
+        StringBuilder types = new StringBuilder();
+        StringBuilder call = new StringBuilder("target.").append(method.getSimpleName()).append('(');
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            TypeMirror type = processingEnv.getTypeUtils().erasure(parameter.asType());
+            boolean isEnum = type.getKind() == TypeKind.DECLARED
+                    && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+            String decoder = isEnum ? "toEnum" : DECODERS.get(type.toString());
+            if (decoder == null) {
+                error(parameter, "Unsupported @ApiMethod parameter type " + parameter.asType()
+                        + "; supported: enums, " + DECODERS.keySet());
+                return null;
+            }
+
+            if (i > 0) {
+                types.append(", ");
+                call.append(", ");
+            }
+            types.append(type).append(".class");
+            call.append(API_PACKAGE).append("ApiArguments.").append(decoder).append("(args, ").append(i);
+            if (isEnum) {
+                call.append(", ").append(type).append(".class");
+            }
+            call.append(')');
+        }
+        call.append(')');
+
+        String body = method.getReturnType().getKind() == TypeKind.VOID
+                ? "{ " + call + "; return null; }"
+                : call.toString();
+
+        return "        invokers.add(new " + API_PACKAGE + "ApiMethodInvoker(\n"
+                + "                " + quote(name) + ",\n"
+                + annotationInstance(apiMethod) + ",\n"
+                + "                new Class<?>[] {" + types + "},\n"
+                + "                args -> " + body + "));\n";
+    }
+
+    /**
+     * Renders the annotation as an anonymous implementation with every element, defaults
+     * included, so the runtime sees the same values it would get from reflection.
+     */
+    private String annotationInstance(AnnotationMirror mirror) {
+        String annotationType = mirror.getAnnotationType().toString();
+        StringBuilder out = new StringBuilder();
+        out.append("                new ").append(annotationType).append("() {\n");
+        out.append("                    @Override\n");
+        out.append("                    public Class<? extends java.lang.annotation.Annotation> annotationType() {\n");
+        out.append("                        return ").append(annotationType).append(".class;\n");
+        out.append("                    }\n");
+
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            TypeMirror returnType = entry.getKey().getReturnType();
+            String literal = entry.getValue().toString();
+            if (returnType.getKind() == TypeKind.ARRAY) {
+                literal = "new " + returnType + " " + literal;
+            }
+
+            out.append("\n                    @Override\n");
+            out.append("                    public ").append(returnType).append(' ')
+                    .append(entry.getKey().getSimpleName()).append("() {\n");
+            out.append("                        return ").append(literal).append(";\n");
+            out.append("                    }\n");
+        }
+        out.append("                }");
+        return out.toString();
+    }
+
+    private void writeTable(TypeElement module, List<String> invokers) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(module);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String tableName = module.getSimpleName() + TABLE_SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? tableName : packageName + "." + tableName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n");
+        source.append("public final class ").append(tableName)
+                .append(" implements ").append(API_PACKAGE).append("ApiDispatchTable {\n");
+        source.append("    @Override\n");
+        source.append("    public java.util.List<").append(API_PACKAGE).append("ApiMethodInvoker> createInvokers(")
+                .append(API_PACKAGE).append("BaseApiModule module) {\n");
+        source.append("        ").append(module.getSimpleName()).append(" target = (")
+                .append(module.getSimpleName()).append(") module;\n");
+        source.append("        java.util.List<").append(API_PACKAGE).append("ApiMethodInvoker> invokers = new java.util.ArrayList<>(")
+                .append(invokers.size()).append(");\n\n");
+        for (String invoker : invokers) {
+            source.append(invoker).append('\n');
+        }
+        source.append("        return invokers;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, module);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            error(module, "Failed to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror mirror, String elementName) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(elementName)) {
+                return String.valueOf(entry.getValue().getValue());
+            }
+        }
+        return "";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private void error(Element element, String message) {
+        Messager messager = processingEnv.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
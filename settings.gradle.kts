@@ -6,3 +6,5 @@
  */
 
 rootProject.name = "Minecraft_Websocket_API"
+
+include("processor")
@@ -1,9 +1,12 @@
 package me.adda.mcwebapi;
 
+import me.adda.mcwebapi.api.ApiTaskScheduler;
 import me.adda.mcwebapi.api.BaseApiModule;
 import me.adda.mcwebapi.api.ReflectiveApiDispatcher;
+import me.adda.mcwebapi.api.WorldSnapshotPublisher;
 import me.adda.mcwebapi.api.modules.*;
 import me.adda.mcwebapi.config.Config;
+import me.adda.mcwebapi.websocket.AuthManager;
 import me.adda.mcwebapi.websocket.WebSocketServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
@@ -15,6 +18,7 @@ import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.event.server.ServerStartingEvent;
 import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -68,11 +72,21 @@ public class MinecraftWebsocketAPI {
         if (webSocketServer != null) {
             webSocketServer.stop();
         }
+        ApiTaskScheduler.getInstance().drainAll();
+        WorldSnapshotPublisher.getInstance().clear();
 
         BaseApiModule.clearAllLevelCaches();
         BaseApiModule.clearAllPlayerCaches();
     }
 
+    @SubscribeEvent
+    public void onServerTick(ServerTickEvent.Post event) {
+        ApiTaskScheduler.getInstance().drain();
+        // Снимок после API-задач, чтобы изменения этого тика были в нём видны
+        WorldSnapshotPublisher.getInstance().onTick(event.getServer(),
+                AuthManager.getInstance().getAuthenticatedCount() > 0);
+    }
+
     @SubscribeEvent
     public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
         if (event.getEntity() instanceof ServerPlayer player) {
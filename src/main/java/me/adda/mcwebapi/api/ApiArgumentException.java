@@ -0,0 +1,10 @@
+package me.adda.mcwebapi.api;
+
+/**
+ * Thrown while decoding request arguments, before the API method is called.
+ */
+public class ApiArgumentException extends IllegalArgumentException {
+    public ApiArgumentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,271 @@
+package me.adda.mcwebapi.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Argument decoders shared by the reflective invokers and the dispatch tables generated by
+ * the annotation processor. Decoders read directly from the request's argument array: the
+ * primitive ones return unboxed values and none of them relies on catching a failed
+ * conversion to try another one. Bad input is reported as {@link ApiArgumentException}.
+ */
+public final class ApiArguments {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private ApiArguments() {}
+
+    /**
+     * Picks the decoder for a parameter type. Called once per parameter at discovery time.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ArgumentDecoder decoderFor(Class<?> type) {
+        if (type == int.class) return ApiArguments::toInt;
+        if (type == long.class) return ApiArguments::toLong;
+        if (type == double.class) return ApiArguments::toDouble;
+        if (type == float.class) return ApiArguments::toFloat;
+        if (type == boolean.class) return ApiArguments::toBoolean;
+        if (type == Integer.class) return ApiArguments::toIntegerOrNull;
+        if (type == Long.class) return ApiArguments::toLongOrNull;
+        if (type == Double.class) return ApiArguments::toDoubleOrNull;
+        if (type == Float.class) return ApiArguments::toFloatOrNull;
+        if (type == Boolean.class) return ApiArguments::toBooleanOrNull;
+        if (type == String.class) return ApiArguments::toStringArg;
+        if (type == UUID.class) return ApiArguments::toUuid;
+        if (type == ResourceLocation.class) return ApiArguments::toResourceLocation;
+        if (type == BlockPos.class) return ApiArguments::toBlockPos;
+        if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            return (args, index) -> toEnum(args, index, enumType);
+        }
+        if (type == JsonNode.class) return ApiArguments::arg;
+
+        // Сложные типы (Map, List, POJO) разбираются Jackson'ом
+        return (args, index) -> toObject(args, index, type);
+    }
+
+    public static ArgumentDecoder[] decodersFor(Class<?>[] types) {
+        ArgumentDecoder[] decoders = new ArgumentDecoder[types.length];
+        for (int i = 0; i < types.length; i++) {
+            decoders[i] = decoderFor(types[i]);
+        }
+        return decoders;
+    }
+
+    public static String toStringArg(JsonNode args, int index) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) return null;
+        if (value.isValueNode()) return value.asText();
+        return value.toString();
+    }
+
+    public static int toInt(JsonNode args, int index) {
+        JsonNode value = required(args, index);
+        if (value.isNumber()) return intValue(value, index);
+        if (value.isTextual()) return checkedInt(parseLong(value.textValue(), index, "int"), index);
+        throw mismatch(index, value, "int");
+    }
+
+    public static long toLong(JsonNode args, int index) {
+        JsonNode value = required(args, index);
+        if (value.isNumber()) {
+            if (!value.canConvertToLong()) throw outOfRange(index, value.asText(), "long");
+            return value.longValue();
+        }
+        if (value.isTextual()) return parseLong(value.textValue(), index, "long");
+        throw mismatch(index, value, "long");
+    }
+
+    public static double toDouble(JsonNode args, int index) {
+        JsonNode value = required(args, index);
+        if (value.isNumber()) return value.doubleValue();
+        if (value.isTextual()) return parseDouble(value.textValue(), index, "double");
+        throw mismatch(index, value, "double");
+    }
+
+    public static float toFloat(JsonNode args, int index) {
+        JsonNode value = required(args, index);
+        if (value.isNumber()) return checkedFloat(value.doubleValue(), value.asText(), index);
+        if (value.isTextual()) return checkedFloat(parseDouble(value.textValue(), index, "float"), value.textValue(), index);
+        throw mismatch(index, value, "float");
+    }
+
+    public static boolean toBoolean(JsonNode args, int index) {
+        JsonNode value = required(args, index);
+        if (value.isBoolean()) return value.booleanValue();
+        if (value.isTextual()) return Boolean.parseBoolean(value.textValue());
+        if (value.isNumber()) return value.doubleValue() != 0;
+        throw mismatch(index, value, "boolean");
+    }
+
+    public static Integer toIntegerOrNull(JsonNode args, int index) {
+        return arg(args, index).isNull() ? null : toInt(args, index);
+    }
+
+    public static Long toLongOrNull(JsonNode args, int index) {
+        return arg(args, index).isNull() ? null : toLong(args, index);
+    }
+
+    public static Double toDoubleOrNull(JsonNode args, int index) {
+        return arg(args, index).isNull() ? null : toDouble(args, index);
+    }
+
+    public static Float toFloatOrNull(JsonNode args, int index) {
+        return arg(args, index).isNull() ? null : toFloat(args, index);
+    }
+
+    public static Boolean toBooleanOrNull(JsonNode args, int index) {
+        return arg(args, index).isNull() ? null : toBoolean(args, index);
+    }
+
+    public static UUID toUuid(JsonNode args, int index) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) return null;
+        if (!value.isTextual()) throw mismatch(index, value, "UUID");
+        try {
+            return UUID.fromString(value.textValue());
+        } catch (IllegalArgumentException e) {
+            throw new ApiArgumentException("argument " + index + ": '" + value.textValue() + "' is not a UUID");
+        }
+    }
+
+    public static ResourceLocation toResourceLocation(JsonNode args, int index) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) return null;
+        if (!value.isTextual()) throw mismatch(index, value, "ResourceLocation");
+
+        ResourceLocation location = ResourceLocation.tryParse(value.textValue());
+        if (location == null) {
+            throw new ApiArgumentException("argument " + index + ": '" + value.textValue() + "' is not a resource location");
+        }
+        return location;
+    }
+
+    /**
+     * Accepts {@code [x, y, z]} or {@code {"x": .., "y": .., "z": ..}}.
+     */
+    public static BlockPos toBlockPos(JsonNode args, int index) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) return null;
+
+        if (value.isArray() && value.size() == 3) {
+            return new BlockPos(toInt(value, 0), toInt(value, 1), toInt(value, 2));
+        }
+        if (value.isObject() && value.has("x") && value.has("y") && value.has("z")) {
+            return new BlockPos(coordinate(value, "x", index), coordinate(value, "y", index), coordinate(value, "z", index));
+        }
+        throw mismatch(index, value, "BlockPos [x, y, z]");
+    }
+
+    /**
+     * Matches constant names case-insensitively; a number selects the constant by ordinal.
+     */
+    public static <E extends Enum<E>> E toEnum(JsonNode args, int index, Class<E> type) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) return null;
+
+        E[] constants = type.getEnumConstants();
+        if (value.isIntegralNumber()) {
+            long ordinal = value.canConvertToLong() ? value.longValue() : -1;
+            if (ordinal >= 0 && ordinal < constants.length) {
+                return constants[(int) ordinal];
+            }
+        } else if (value.isTextual()) {
+            for (E constant : constants) {
+                if (constant.name().equalsIgnoreCase(value.textValue())) {
+                    return constant;
+                }
+            }
+        }
+        throw new ApiArgumentException("argument " + index + ": '" + value.asText() + "' is not one of "
+                + Arrays.toString(constants).toLowerCase(Locale.ROOT));
+    }
+
+    public static <T> T toObject(JsonNode args, int index, Class<T> type) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) return null;
+        try {
+            return mapper.treeToValue(value, type);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new ApiArgumentException("argument " + index + ": cannot convert to " + type.getSimpleName());
+        }
+    }
+
+    public static JsonNode arg(JsonNode args, int index) {
+        if (args == null || !args.isArray() || index >= args.size()) {
+            throw new ApiArgumentException("expected at least " + (index + 1) + " arguments, got "
+                    + (args == null || !args.isArray() ? 0 : args.size()));
+        }
+        return args.get(index);
+    }
+
+    private static JsonNode required(JsonNode args, int index) {
+        JsonNode value = arg(args, index);
+        if (value.isNull()) {
+            throw new ApiArgumentException("argument " + index + " must not be null");
+        }
+        return value;
+    }
+
+    private static int coordinate(JsonNode pos, String field, int index) {
+        JsonNode value = pos.get(field);
+        if (!value.isNumber()) {
+            throw mismatch(index, value, "BlockPos." + field);
+        }
+        return intValue(value, index);
+    }
+
+    // Без проверки intValue() молча обрезает: 4294967297 превратилось бы в 1
+    private static int intValue(JsonNode number, int index) {
+        if (!number.canConvertToInt()) {
+            throw outOfRange(index, number.asText(), "int");
+        }
+        return number.intValue();
+    }
+
+    private static int checkedInt(long value, int index) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw outOfRange(index, Long.toString(value), "int");
+        }
+        return (int) value;
+    }
+
+    // Конечное double больше Float.MAX_VALUE стало бы бесконечностью
+    private static float checkedFloat(double value, String text, int index) {
+        if (Double.isFinite(value) && Math.abs(value) > Float.MAX_VALUE) {
+            throw outOfRange(index, text, "float");
+        }
+        return (float) value;
+    }
+
+    private static ApiArgumentException outOfRange(int index, String value, String typeName) {
+        return new ApiArgumentException("argument " + index + ": " + value + " is out of range for " + typeName);
+    }
+
+    private static long parseLong(String text, int index, String typeName) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiArgumentException("argument " + index + ": cannot convert '" + text + "' to " + typeName);
+        }
+    }
+
+    private static double parseDouble(String text, int index, String typeName) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiArgumentException("argument " + index + ": cannot convert '" + text + "' to " + typeName);
+        }
+    }
+
+    private static ApiArgumentException mismatch(int index, JsonNode value, String typeName) {
+        return new ApiArgumentException("argument " + index + ": expected " + typeName
+                + ", got " + value.getNodeType().name().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,31 @@
+package me.adda.mcwebapi.api;
+
+import java.util.List;
+
+/**
+ * Dispatch table generated at compile time for an {@code @ApiModule} class. The generated class
+ * is named {@code <ModuleClass>_ApiTable}, lives in the module's package and calls every
+ * {@code @ApiMethod} directly with typed argument decoders, so registration needs no
+ * method scanning and invocation needs no reflection.
+ */
+public interface ApiDispatchTable {
+    String CLASS_SUFFIX = "_ApiTable";
+
+    List<ApiMethodInvoker> createInvokers(BaseApiModule module);
+
+    /**
+     * Returns the generated table for the given module class, or {@code null} when the class
+     * was compiled without the annotation processor.
+     */
+    static ApiDispatchTable find(Class<?> moduleClass) {
+        try {
+            Class<?> tableClass = Class.forName(moduleClass.getName() + CLASS_SUFFIX, true,
+                    moduleClass.getClassLoader());
+            return (ApiDispatchTable) tableClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load dispatch table for " + moduleClass.getName(), e);
+        }
+    }
+}
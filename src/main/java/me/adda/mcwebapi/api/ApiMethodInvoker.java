@@ -0,0 +1,100 @@
+package me.adda.mcwebapi.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import me.adda.mcwebapi.api.annotations.ApiMethod;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Invoker for a single {@code @ApiMethod}, built once during discovery. Generated dispatch
+ * tables supply a handler that calls the method directly; otherwise the target is a method
+ * handle already bound to the module instance and adapted to {@code (Object[]) -> Object},
+ * fed by argument decoders resolved once per parameter.
+ * Exceptions from the method body propagate unwrapped, argument decoding failures are
+ * reported as {@link ApiArgumentException}.
+ */
+public final class ApiMethodInvoker {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    @FunctionalInterface
+    public interface Handler {
+        Object invoke(JsonNode args) throws Throwable;
+    }
+
+    private final String name;
+    private final ApiMethod annotation;
+    private final Class<?>[] parameterTypes;
+    private final ArgumentDecoder[] decoders;
+    private final Handler handler;
+
+    public ApiMethodInvoker(String name, ApiMethod annotation, Class<?>[] parameterTypes, Handler handler) {
+        this(name, annotation, parameterTypes, ApiArguments.decodersFor(parameterTypes), handler);
+    }
+
+    private ApiMethodInvoker(String name, ApiMethod annotation, Class<?>[] parameterTypes,
+                             ArgumentDecoder[] decoders, Handler handler) {
+        this.name = name;
+        this.annotation = annotation;
+        this.parameterTypes = parameterTypes;
+        this.decoders = decoders;
+        this.handler = handler;
+    }
+
+    static ApiMethodInvoker reflective(BaseApiModule module, String name, Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        ArgumentDecoder[] decoders = ApiArguments.decodersFor(parameterTypes);
+        return new ApiMethodInvoker(name, method.getAnnotation(ApiMethod.class), parameterTypes, decoders,
+                createHandler(module, method, decoders));
+    }
+
+    private static Handler createHandler(BaseApiModule module, Method method, ArgumentDecoder[] decoders) {
+        try {
+            MethodHandle handle = MethodHandles.lookup()
+                    .unreflect(method)
+                    .bindTo(module)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+            return args -> (Object) handle.invokeExact(decode(decoders, args));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access API method " + method, e);
+        }
+    }
+
+    private static Object[] decode(ArgumentDecoder[] decoders, JsonNode args) {
+        Object[] decoded = new Object[decoders.length];
+        for (int i = 0; i < decoders.length; i++) {
+            decoded[i] = decoders[i].decode(args, i);
+        }
+        return decoded;
+    }
+
+    public Object invoke(JsonNode args) throws Throwable {
+        return handler.invoke(args);
+    }
+
+    /**
+     * Decodes the arguments without calling the method, so a batch can be checked up front.
+     */
+    public void validate(JsonNode args) {
+        decode(decoders, args);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ApiMethod getAnnotation() {
+        return annotation;
+    }
+
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+}
@@ -0,0 +1,284 @@
+package me.adda.mcwebapi.api;
+
+import me.adda.mcwebapi.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Executor for API work that has to run on the server thread. Instead of going through
+ * {@code server.execute}, where it competes with vanilla tasks and has no cap, tasks queue here
+ * and are drained once per tick at the end of {@code ServerTickEvent.Post}, for at most
+ * {@code tickBudgetMillis}. Whatever does not fit waits for the next tick, so heavy API load
+ * shows up as higher latency rather than lower TPS. Tasks submitted with a deadline that has
+ * already passed when their turn comes are not run; their expiry callback fires instead.
+ *
+ * <p>Every connection has its own {@link Client} queue with a read-only and a mutation lane.
+ * The drain goes round-robin over clients, taking up to {@code weight} tasks from each per
+ * round, reads before mutations, so one client flooding the queue cannot delay the others by
+ * more than its share.
+ */
+public class ApiTaskScheduler implements Executor {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final ApiTaskScheduler INSTANCE = new ApiTaskScheduler();
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // Задачи без клиента: BaseApiModule.supplyOnServerThread и прочий внутренний код
+    private final Client shared = new Client("server", 1);
+    private final List<Client> clients = new CopyOnWriteArrayList<>(List.of(shared));
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+
+    // Пишутся только из серверного потока
+    private int cursor;
+    private volatile long executed;
+    private volatile long readsExecuted;
+    private volatile long mutationsExecuted;
+    private volatile long failed;
+    private volatile long expired;
+    private volatile long ticks;
+    private volatile long overBudgetTicks;
+    private volatile long carriedOverTicks;
+    private volatile long lastDrainNanos;
+    private volatile long maxDrainNanos;
+    private volatile int peakQueueDepth;
+
+    public static ApiTaskScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    private ApiTaskScheduler() {
+        // private constructor for singleton
+    }
+
+    /**
+     * Creates the queue for a new connection. Call {@link #unregister} when it closes.
+     */
+    public Client register(String name, int weight) {
+        Client client = new Client(name, weight);
+        clients.add(client);
+        return client;
+    }
+
+    /**
+     * Tasks already queued still run (or expire); the client is dropped once they are gone.
+     */
+    public void unregister(Client client) {
+        client.closed = true;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submit(shared, false, task, NO_DEADLINE, null);
+    }
+
+    /**
+     * Queues a task that is dropped if it has not started by {@code deadlineNanos}
+     * ({@link System#nanoTime()} based). {@code onExpired} runs instead, on the server thread.
+     */
+    public void submit(Client client, boolean readOnly, Runnable task, long deadlineNanos, Runnable onExpired) {
+        submit(client, readOnly, task, () -> deadlineNanos, onExpired);
+    }
+
+    /**
+     * Same as above, but the deadline is read only when the task's turn comes, so it may be
+     * extended while the task is queued.
+     */
+    public void submit(Client client, boolean readOnly, Runnable task, LongSupplier deadline, Runnable onExpired) {
+        Client target = client != null ? client : shared;
+        target.lane(readOnly).add(new ScheduledTask(task, deadline, onExpired));
+        int depth = queueDepth.incrementAndGet();
+        submitted.incrementAndGet();
+        if (depth > peakQueueDepth) {
+            peakQueueDepth = depth;
+        }
+    }
+
+    /**
+     * Runs queued tasks until the tick budget is spent. At least one task runs every tick,
+     * so a single slow task cannot starve the queue.
+     */
+    public void drain() {
+        ticks++;
+        if (queueDepth.get() == 0) {
+            lastDrainNanos = 0;
+            removeClosed();
+            return;
+        }
+
+        long budget = (long) (Config.SERVER.tickBudgetMillis.get() * 1_000_000L);
+        long start = System.nanoTime();
+        long elapsed = 0;
+
+        Client[] snapshot = clients.toArray(new Client[0]);
+        // Раунд начинается с разных клиентов, чтобы обрыв по бюджету не бил всегда по одним и тем же
+        int first = Math.floorMod(cursor++, snapshot.length);
+        boolean progress = true;
+
+        while (elapsed < budget && progress) {
+            progress = false;
+            for (int lane = 0; lane < 2 && elapsed < budget; lane++) {
+                boolean readOnly = lane == 0;
+                for (int i = 0; i < snapshot.length && elapsed < budget; i++) {
+                    Client client = snapshot[(first + i) % snapshot.length];
+                    Queue<ScheduledTask> queue = client.lane(readOnly);
+                    int weight = client.weight;
+
+                    ScheduledTask task;
+                    for (int n = 0; n < weight && elapsed < budget && (task = queue.poll()) != null; n++) {
+                        queueDepth.decrementAndGet();
+                        if (run(task, start + elapsed)) {
+                            client.executed++;
+                            if (readOnly) {
+                                readsExecuted++;
+                            } else {
+                                mutationsExecuted++;
+                            }
+                        }
+                        progress = true;
+                        elapsed = System.nanoTime() - start;
+                    }
+                }
+            }
+        }
+
+        lastDrainNanos = elapsed;
+        if (elapsed > maxDrainNanos) {
+            maxDrainNanos = elapsed;
+        }
+        if (elapsed > budget) {
+            overBudgetTicks++;
+        }
+        if (queueDepth.get() > 0) {
+            carriedOverTicks++;
+        }
+        removeClosed();
+    }
+
+    /**
+     * Runs everything left, used when the server stops so no caller waits forever.
+     */
+    public void drainAll() {
+        for (Client client : clients) {
+            for (Queue<ScheduledTask> queue : List.of(client.reads, client.mutations)) {
+                ScheduledTask task;
+                while ((task = queue.poll()) != null) {
+                    queueDepth.decrementAndGet();
+                    run(task, System.nanoTime());
+                }
+            }
+        }
+        removeClosed();
+    }
+
+    private void removeClosed() {
+        clients.removeIf(client -> client.closed && client.reads.isEmpty() && client.mutations.isEmpty());
+    }
+
+    /**
+     * @return true if the task ran to completion
+     */
+    private boolean run(ScheduledTask task, long now) {
+        try {
+            // Просроченная задача не тратит время тика, вызывающий получает TIMEOUT
+            long deadline = task.deadline().getAsLong();
+            if (deadline != NO_DEADLINE && now - deadline > 0) {
+                expired++;
+                if (task.onExpired() != null) {
+                    task.onExpired().run();
+                }
+                return false;
+            }
+            task.task().run();
+            executed++;
+            return true;
+        } catch (Throwable e) {
+            failed++;
+            LOGGER.error("API task failed", e);
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queueDepth.get());
+        stats.put("peakQueueDepth", peakQueueDepth);
+        stats.put("submitted", submitted.get());
+        stats.put("executed", executed);
+        stats.put("readsExecuted", readsExecuted);
+        stats.put("mutationsExecuted", mutationsExecuted);
+        stats.put("failed", failed);
+        stats.put("expired", expired);
+        stats.put("ticks", ticks);
+        stats.put("overBudgetTicks", overBudgetTicks);
+        stats.put("carriedOverTicks", carriedOverTicks);
+        stats.put("budgetMillis", Config.SERVER.tickBudgetMillis.get());
+        stats.put("lastDrainMicros", lastDrainNanos / 1000);
+        stats.put("maxDrainMicros", maxDrainNanos / 1000);
+
+        List<Map<String, Object>> clientStats = new ArrayList<>();
+        for (Client client : clients) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("name", client.name);
+            entry.put("weight", client.weight);
+            entry.put("queuedReads", client.reads.size());
+            entry.put("queuedMutations", client.mutations.size());
+            entry.put("executed", client.executed);
+            clientStats.add(entry);
+        }
+        stats.put("clients", clientStats);
+        return stats;
+    }
+
+    /**
+     * Queue of one connection. Name and weight change when the connection authenticates.
+     */
+    public static final class Client {
+        private final Queue<ScheduledTask> reads = new ConcurrentLinkedQueue<>();
+        private final Queue<ScheduledTask> mutations = new ConcurrentLinkedQueue<>();
+        private volatile String name;
+        private volatile int weight;
+        private volatile boolean closed;
+        // Пишется только из серверного потока
+        private volatile long executed;
+
+        private Client(String name, int weight) {
+            this.name = name;
+            this.weight = Math.max(1, weight);
+        }
+
+        public void configure(String name, int weight) {
+            this.name = name;
+            this.weight = Math.max(1, weight);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        private Queue<ScheduledTask> lane(boolean readOnly) {
+            return readOnly ? reads : mutations;
+        }
+    }
+
+    private record ScheduledTask(Runnable task, LongSupplier deadline, Runnable onExpired) {}
+}
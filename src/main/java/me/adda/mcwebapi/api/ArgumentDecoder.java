@@ -0,0 +1,12 @@
+package me.adda.mcwebapi.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Decodes one positional argument straight from the request's argument array.
+ * Resolved once per parameter when the module is registered.
+ */
+@FunctionalInterface
+public interface ArgumentDecoder {
+    Object decode(JsonNode args, int index);
+}
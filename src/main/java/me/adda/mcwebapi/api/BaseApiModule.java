@@ -2,6 +2,7 @@ package me.adda.mcwebapi.api;
 
 import me.adda.mcwebapi.api.annotations.ApiMethod;
 import me.adda.mcwebapi.api.annotations.ApiModule;
+import me.adda.mcwebapi.config.Config;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
@@ -10,6 +11,8 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
@@ -17,9 +20,13 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 public abstract class BaseApiModule {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     protected final Map<String, CacheEntry<ServerLevel>> levelCache = new ConcurrentHashMap<>();
     protected final Map<String, CacheEntry<ServerPlayer>> playerByNameCache = new ConcurrentHashMap<>();
     protected final Map<UUID, CacheEntry<ServerPlayer>> playerByUuidCache = new ConcurrentHashMap<>();
@@ -29,7 +36,9 @@ public abstract class BaseApiModule {
     private static final long CACHE_TTL = 60000; // 1 minute
     private static final long PLAYER_CACHE_TTL = 30000; // 30 seconds
 
-    private final Map<String, Method> methodCache = new ConcurrentHashMap<>();
+    private final Map<String, ApiMethodInvoker> methodCache = new ConcurrentHashMap<>();
+    // Точные имена, чтобы не приводить регистр, когда клиент пишет имя как в аннотации
+    private final Map<String, ApiMethodInvoker> exactMethodCache = new ConcurrentHashMap<>();
     private final String moduleName;
 
     private static final List<BaseApiModule> ALL_MODULES = new ArrayList<>(); // all instances for proper cache invalidation
@@ -80,20 +89,40 @@ public abstract class BaseApiModule {
         return moduleName;
     }
 
-    public Method getMethod(String methodName) {
-        return methodCache.get(methodName.toLowerCase());
+    public ApiMethodInvoker getMethod(String methodName) {
+        ApiMethodInvoker method = exactMethodCache.get(methodName);
+        return method != null ? method : methodCache.get(methodName.toLowerCase());
+    }
+
+    public Collection<ApiMethodInvoker> getInvokers() {
+        return exactMethodCache.values();
     }
 
     public void discoverMethods() {
         methodCache.clear();
+        exactMethodCache.clear();
+
+        // Таблица от annotation processor, если модуль собран с ним
+        ApiDispatchTable table = ApiDispatchTable.find(this.getClass());
+        if (table != null) {
+            for (ApiMethodInvoker invoker : table.createInvokers(this)) {
+                methodCache.put(invoker.getName().toLowerCase(), invoker);
+                exactMethodCache.put(invoker.getName(), invoker);
+            }
+            LOGGER.debug("Loaded {} generated methods for module {}", methodCache.size(), moduleName);
+            return;
+        }
+
         for (Method method : this.getClass().getMethods()) {
             if (method.isAnnotationPresent(ApiMethod.class)) {
                 ApiMethod annotation = method.getAnnotation(ApiMethod.class);
                 String name = annotation.value().isEmpty() ?
                         method.getName() : annotation.value();
-                methodCache.put(name.toLowerCase(), method);
+                ApiMethodInvoker invoker = ApiMethodInvoker.reflective(this, name, method);
+                methodCache.put(name.toLowerCase(), invoker);
+                exactMethodCache.put(name, invoker);
 
-                System.out.println("Discovered method: " + moduleName + "." + name);
+                LOGGER.debug("Discovered method: {}.{}", moduleName, name);
             }
         }
     }
@@ -199,6 +228,12 @@ public abstract class BaseApiModule {
                 player.server.getPlayerList().getPlayerByName(player.getScoreboardName()) != null;
     }
 
+    /**
+     * Runs the supplier on the server thread and waits for it, at most {@code websocket.timeout}
+     * seconds. API methods already run on the server thread unless declared with
+     * {@code serverThread = false}, in which case this blocks the calling thread; such methods
+     * should prefer {@link #supplyOnServerThread}.
+     */
     protected <T> T executeOnServerThread(java.util.function.Supplier<T> supplier) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -207,22 +242,27 @@ public abstract class BaseApiModule {
             return supplier.get();
         }
 
-        CompletableFuture<T> future = new CompletableFuture<>();
-        server.execute(() -> {
-            try {
-                future.complete(supplier.get());
-            } catch (Exception e) {
-                future.completeExceptionally(e);
-            }
-        });
-
         try {
-            return future.get();
-        } catch (InterruptedException | ExecutionException e) {
+            return supplyOnServerThread(supplier).get(Config.SERVER.timeout.get(), TimeUnit.SECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
             return null;
         }
     }
 
+    /**
+     * Schedules the supplier on the server thread. An API method may return the future
+     * directly; the response is sent once it completes.
+     */
+    protected <T> CompletableFuture<T> supplyOnServerThread(java.util.function.Supplier<T> supplier) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) return CompletableFuture.completedFuture(null);
+
+        if (server.isSameThread()) {
+            return CompletableFuture.completedFuture(supplier.get());
+        }
+        return CompletableFuture.supplyAsync(supplier, ApiTaskScheduler.getInstance());
+    }
+
     public static class CacheEntry<T> {
         private final SoftReference<T> value;
         private final long timestamp;
@@ -0,0 +1,212 @@
+package me.adda.mcwebapi.api;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Request IDs currently being processed for one connection. IDs are 1-16 ASCII hex characters
+ * (up to 64 bits) and are only unique within the connection that sent them, so two clients
+ * choosing the same ID never collide. An ID is identified by its value and its length, so
+ * {@code "1"} and {@code "01"} are different requests, while case does not matter.
+ *
+ * <p>Stored in an open-addressing table of primitive longs without locks. IDs are acquired by
+ * a single thread, the connection's event loop, which alone fills, cleans up and resizes the
+ * table. Releases come from whichever thread finished the request and only flip their own slot
+ * to deleted with a CAS. A slot being copied by a resize is frozen first, so a release that
+ * races with it retries in the new table.
+ */
+public final class InFlightRequests {
+    public static final int MAX_ID_LENGTH = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Состояние ячейки: длина ID (1-16) - занята, остальное - служебные значения
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final int MOVED = 0x100;
+
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private final AtomicInteger size = new AtomicInteger();
+    // Непустые ячейки текущей таблицы (занятые и удалённые), меняется только при захвате
+    private int used;
+
+    /**
+     * Must only be called from the connection's event loop.
+     */
+    public boolean tryAcquire(long requestId, int length) {
+        Table current = table;
+        if ((used + 1) * 4 > current.capacity() * 3) {
+            current = rebuild(current);
+        }
+
+        int mask = current.capacity() - 1;
+        int home = slot(requestId, length, mask);
+        int slot = home;
+        for (int probes = 0; probes <= mask; probes++) {
+            int state = current.states.get(slot);
+            if (state == EMPTY) {
+                trimBefore(current, slot);
+                break;
+            }
+            if (state == length && current.ids.get(slot) == requestId) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Свободная ячейка ищется после очистки: ячейки, освобождённые во время проб, могли стать
+        // пустыми, и ID за ними потерялся бы для release
+        int free = home;
+        while (current.states.get(free) > 0) {
+            free = (free + 1) & mask;
+        }
+        if (current.states.get(free) == EMPTY) {
+            used++;
+        }
+        // ID записывается до состояния: освобождающий поток видит ячейку только целиком
+        current.ids.set(free, requestId);
+        current.states.set(free, length);
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * May be called from any thread, once per successful {@link #tryAcquire}.
+     */
+    public void release(long requestId, int length) {
+        Table current = table;
+        while (!remove(current, requestId, length)) {
+            // Ячейку переносит rebuild: ждём, пока новая таблица будет опубликована
+            while (table == current) {
+                Thread.onSpinWait();
+            }
+            current = table;
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    int capacity() {
+        return table.capacity();
+    }
+
+    /**
+     * @return false if the ID was moved to a newer table
+     */
+    private boolean remove(Table current, long requestId, int length) {
+        int mask = current.capacity() - 1;
+        int slot = slot(requestId, length, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            int state = current.states.get(slot);
+            if (state == EMPTY) {
+                return true;
+            }
+            if ((state & ~MOVED) == length && current.ids.get(slot) == requestId) {
+                if (state == length && current.states.compareAndSet(slot, length, DELETED)) {
+                    size.decrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return true;
+    }
+
+    // Удалённые ячейки прямо перед пустой не нужны ни одной цепочке проб: их можно очистить
+    private void trimBefore(Table current, int emptySlot) {
+        int mask = current.capacity() - 1;
+        int slot = (emptySlot - 1) & mask;
+        while (slot != emptySlot && current.states.get(slot) == DELETED) {
+            current.states.set(slot, EMPTY);
+            used--;
+            slot = (slot - 1) & mask;
+        }
+    }
+
+    /**
+     * Copies live IDs into a fresh table, dropping deleted slots, and doubles the capacity if
+     * the table is more than a quarter full of live IDs.
+     */
+    private Table rebuild(Table old) {
+        int capacity = old.capacity();
+        while ((size.get() + 1) * 4 > capacity) {
+            capacity *= 2;
+        }
+
+        Table fresh = new Table(capacity);
+        int mask = capacity - 1;
+        int moved = 0;
+        for (int i = 0; i < old.capacity(); i++) {
+            int state = old.states.get(i);
+            // Занятую ячейку замораживаем CAS'ом: либо копируем её, либо её успели освободить
+            while (state > 0 && state < MOVED && !old.states.compareAndSet(i, state, state | MOVED)) {
+                state = old.states.get(i);
+            }
+            if (state <= 0) {
+                continue;
+            }
+
+            long id = old.ids.get(i);
+            int slot = slot(id, state, mask);
+            while (fresh.states.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            fresh.ids.set(slot, id);
+            fresh.states.set(slot, state);
+            moved++;
+        }
+
+        used = moved;
+        table = fresh;
+        return fresh;
+    }
+
+    private static int slot(long requestId, int length, int mask) {
+        long hash = (requestId ^ length) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    public static boolean isValidId(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            if (hexValue(requestId.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses an ID already checked with {@link #isValidId}, without allocating.
+     */
+    public static long parseId(String requestId) {
+        long value = 0;
+        for (int i = 0; i < requestId.length(); i++) {
+            value = (value << 4) | hexValue(requestId.charAt(i));
+        }
+        return value;
+    }
+
+    // Только ASCII: Character.digit принял бы и полноширинные и прочие Unicode-цифры
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private record Table(AtomicLongArray ids, AtomicIntegerArray states) {
+        Table(int capacity) {
+            this(new AtomicLongArray(capacity), new AtomicIntegerArray(capacity));
+        }
+
+        int capacity() {
+            return states.length();
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package me.adda.mcwebapi.api;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Message {
-    private String type; // REQUEST, RESPONSE, ERROR, EVENT
+    private String type; // REQUEST, RESPONSE, ERROR, EVENT, PACKED, BATCH, HELLO
     private String module;
     private String method;
-    private Object[] args;
-    private String requestId; // 3-char hex ID
+    private Integer methodId; // ID из auth.getCatalog(), заменяет module + method
+    private JsonNode args; // позиционные аргументы, разбираются декодерами метода
+    private String requestId; // 1-16 hex chars, уникален в пределах соединения
     private Object data;
     private String status; // SUCCESS, ERROR
     private Long timestamp;
+    private Long timeoutMs; // срок выполнения запроса, по умолчанию websocket.timeout
+    private List<Message> calls; // вызовы BATCH
+    private Boolean atomic; // BATCH: проверить всё заранее и остановиться на первой ошибке
+    private Long snapshotAgeMs; // возраст снимка мира, из которого взят ответ
 
     public Message() {}
 
@@ -30,8 +38,11 @@ public class Message {
     public String getMethod() { return method; }
     public void setMethod(String method) { this.method = method; }
 
-    public Object[] getArgs() { return args; }
-    public void setArgs(Object[] args) { this.args = args; }
+    public Integer getMethodId() { return methodId; }
+    public void setMethodId(Integer methodId) { this.methodId = methodId; }
+
+    public JsonNode getArgs() { return args; }
+    public void setArgs(JsonNode args) { this.args = args; }
 
     public String getRequestId() { return requestId; }
     public void setRequestId(String requestId) { this.requestId = requestId; }
@@ -44,4 +55,16 @@ public class Message {
 
     public Long getTimestamp() { return timestamp; }
     public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
+
+    public Long getTimeoutMs() { return timeoutMs; }
+    public void setTimeoutMs(Long timeoutMs) { this.timeoutMs = timeoutMs; }
+
+    public Long getSnapshotAgeMs() { return snapshotAgeMs; }
+    public void setSnapshotAgeMs(Long snapshotAgeMs) { this.snapshotAgeMs = snapshotAgeMs; }
+
+    public List<Message> getCalls() { return calls; }
+    public void setCalls(List<Message> calls) { this.calls = calls; }
+
+    public Boolean getAtomic() { return atomic; }
+    public void setAtomic(Boolean atomic) { this.atomic = atomic; }
 }
\ No newline at end of file
@@ -1,133 +1,430 @@
 package me.adda.mcwebapi.api;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import me.adda.mcwebapi.api.annotations.ApiMethod;
+import me.adda.mcwebapi.config.Config;
+import net.minecraft.server.MinecraftServer;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 public class ReflectiveApiDispatcher {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final long MAX_TIMEOUT_MILLIS = 300_000;
 
     private final Map<String, BaseApiModule> modules = new ConcurrentHashMap<>();
-    private final Set<String> pendingRequests = ConcurrentHashMap.newKeySet();
 
-    public Message dispatch(Message request) {
-        return dispatchInternal(request, null);
+    // Таблица методов по числовому ID, ID выдаются в порядке регистрации модулей
+    private volatile RoutedMethod[] methodTable = new RoutedMethod[0];
+    private volatile Map<String, Integer> catalog = Collections.emptyMap();
+
+    /**
+     * Must be called on the connection's event loop, which owns {@code inFlight}. With a
+     * non-null {@code executor} the request is routed there once its ID is tracked.
+     */
+    public CompletableFuture<Message> dispatch(Message request, InFlightRequests inFlight,
+                                               ApiTaskScheduler.Client client, Executor executor) {
+        return track(request, inFlight, executor, deadline -> route(request, null, client, deadline));
+    }
+
+    public CompletableFuture<Message> dispatchWithModule(Message request, BaseApiModule specificModule,
+                                                         InFlightRequests inFlight, ApiTaskScheduler.Client client) {
+        return track(request, inFlight, null, deadline -> route(request, specificModule, client, deadline));
     }
 
-    public Message dispatchWithModule(Message request, BaseApiModule specificModule) {
-        return dispatchInternal(request, specificModule);
+    /**
+     * Executes the calls of a BATCH message. Every call is resolved and its arguments decoded
+     * before anything runs. Server-thread calls of a plain batch are queued as separate tasks in
+     * one hop, the others run right away; an {@code atomic} batch runs as a single task, is rejected as a whole if that check
+     * fails, and stops at the first failing call; effects of calls that already ran are not
+     * rolled back.
+     */
+    public CompletableFuture<Message> dispatchBatch(Message batch, InFlightRequests inFlight,
+                                                    ApiTaskScheduler.Client client, Executor executor) {
+        return track(batch, inFlight, executor, deadline -> executeBatch(batch, client, deadline));
     }
 
-    private Message dispatchInternal(Message request, BaseApiModule specificModule) {
-        String requestId = request.getRequestId();
+    private CompletableFuture<Message> track(Message request, InFlightRequests inFlight, Executor executor,
+                                             LongFunction<CompletableFuture<Message>> work) {
+        String requestIdText = request.getRequestId();
 
         // Валидация requestId
-        if (requestId == null || requestId.length() > 4 || !isValidHex(requestId)) {
-            return createErrorResponse(request, "INVALID_REQUEST_ID",
-                    "Request ID must be 1-4 character hex string");
+        if (!InFlightRequests.isValidId(requestIdText)) {
+            return CompletableFuture.completedFuture(createErrorResponse(request, "INVALID_REQUEST_ID",
+                    "Request ID must be 1-" + InFlightRequests.MAX_ID_LENGTH + " character hex string"));
         }
+        long requestId = InFlightRequests.parseId(requestIdText);
+        int requestIdLength = requestIdText.length();
+
+        // Защита от дубликатов в пределах соединения
+        if (!inFlight.tryAcquire(requestId, requestIdLength)) {
+            return CompletableFuture.completedFuture(createErrorResponse(request, "DUPLICATE_REQUEST",
+                    "Request with this ID is already processing"));
+        }
+
+        long timeoutMillis = getTimeoutMillis(request);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
 
-        // Защита от дубликатов
-        if (!pendingRequests.add(requestId)) {
-            return createErrorResponse(request, "DUPLICATE_REQUEST",
-                    "Request with this ID is already processing");
+        CompletableFuture<Message> response;
+        if (executor != null) {
+            // ID уже учтён в event loop, в пуле выполняется только сама работа
+            response = CompletableFuture.supplyAsync(() -> run(request, work, deadline), executor)
+                    .thenCompose(Function.identity());
+        } else {
+            response = run(request, work, deadline);
         }
 
+        // По истечении срока клиент получает TIMEOUT, поздний результат отбрасывается.
+        // ID освобождается, когда ответ готов, а не когда вернулся вызов
+        return response
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> e instanceof TimeoutException ? createTimeout(request, timeoutMillis)
+                        : createExecutionError(request, e))
+                .whenComplete((message, error) -> inFlight.release(requestId, requestIdLength));
+    }
+
+    private CompletableFuture<Message> run(Message request, LongFunction<CompletableFuture<Message>> work,
+                                           long deadline) {
         try {
-            String moduleName = request.getModule();
-            String methodName = request.getMethod();
+            return work.apply(deadline);
+        } catch (Throwable e) {
+            return CompletableFuture.completedFuture(createExecutionError(request, e));
+        }
+    }
 
-            BaseApiModule module = specificModule != null ? specificModule : modules.get(moduleName);
-            if (module == null) {
-                return createErrorResponse(request, "MODULE_NOT_FOUND",
-                        "Module not found: " + moduleName, getAvailableModules());
+    private static long getTimeoutMillis(Message request) {
+        long configured = Config.SERVER.timeout.get() * 1000L;
+        Long requested = request.getTimeoutMs();
+        if (requested == null || requested <= 0) {
+            return configured;
+        }
+        return Math.min(requested, MAX_TIMEOUT_MILLIS);
+    }
+
+    private CompletableFuture<Message> route(Message request, BaseApiModule specificModule,
+                                             ApiTaskScheduler.Client client, long deadline) {
+        Resolved resolved = resolve(request, specificModule);
+        if (resolved.error() != null) {
+            return CompletableFuture.completedFuture(resolved.error());
+        }
+        ApiMethodInvoker method = resolved.method();
+
+        ApiMethod annotation = method.getAnnotation();
+        if (!annotation.idempotent()) {
+            return schedule(request, method, client, annotation.readOnly(), deadline, getTimeoutMillis(request));
+        }
+
+        // Одинаковые одновременные запросы выполняются один раз, каждый получает ответ со своим requestId.
+        // Выполнение идёт в очереди первого клиента со сроком самого терпеливого из ожидающих;
+        // если ждать уже некому, оно отбрасывается, а свой TIMEOUT каждый получает в track()
+        String name = resolved.module().getModuleName() + "." + method.getName();
+        boolean refreshSnapshot = needsSnapshotRefresh(method);
+        return RequestCoalescer.getInstance().coalesce(name, request.getArgs(), client, deadline, flight ->
+                        onServerThread(request, annotation.serverThread() || refreshSnapshot, client,
+                                annotation.readOnly(), flight::deadline, response -> flight.cancel(), () -> {
+                            if (!flight.start()) {
+                                // Все ожидающие отключились или уже получили TIMEOUT, отвечать некому
+                                return new CompletableFuture<>();
+                            }
+                            return invoke(request, method, refreshSnapshot);
+                        }))
+                .thenApply(shared -> forRequest(shared, request));
+    }
+
+    private CompletableFuture<Message> executeBatch(Message batch, ApiTaskScheduler.Client client, long deadline) {
+        List<Message> calls = batch.getCalls();
+        if (calls == null || calls.isEmpty()) {
+            return CompletableFuture.completedFuture(createErrorResponse(batch, "INVALID_BATCH",
+                    "Batch must contain at least one call"));
+        }
+        int maxBatchSize = Config.SERVER.maxBatchSize.get();
+        if (calls.size() > maxBatchSize) {
+            return CompletableFuture.completedFuture(createErrorResponse(batch, "BATCH_TOO_LARGE",
+                    "Batch may contain at most " + maxBatchSize + " calls"));
+        }
+        boolean atomic = Boolean.TRUE.equals(batch.getAtomic());
+        int maxAtomicBatchSize = Config.SERVER.maxAtomicBatchSize.get();
+        if (atomic && calls.size() > maxAtomicBatchSize) {
+            return CompletableFuture.completedFuture(createErrorResponse(batch, "BATCH_TOO_LARGE",
+                    "Atomic batch may contain at most " + maxAtomicBatchSize + " calls"));
+        }
+
+        // Разрешение методов и разбор аргументов до выполнения чего-либо
+        int size = calls.size();
+        ApiMethodInvoker[] methods = new ApiMethodInvoker[size];
+        Message[] rejected = new Message[size];
+        boolean anyRejected = false;
+        boolean needsServerThread = false;
+        boolean readOnly = true;
+        boolean readsSnapshot = false;
+
+        for (int i = 0; i < size; i++) {
+            Message call = calls.get(i);
+            Resolved resolved = resolve(call, null);
+            if (resolved.error() != null) {
+                rejected[i] = resolved.error();
+                anyRejected = true;
+                continue;
+            }
+            try {
+                resolved.method().validate(call.getArgs());
+            } catch (ApiArgumentException e) {
+                rejected[i] = createErrorResponse(call, "INVALID_ARGUMENTS", "Argument type mismatch: " + e.getMessage());
+                anyRejected = true;
+                continue;
+            }
+            methods[i] = resolved.method();
+            needsServerThread |= methods[i].getAnnotation().serverThread();
+            readOnly &= methods[i].getAnnotation().readOnly();
+            readsSnapshot |= methods[i].getAnnotation().snapshot();
+        }
+
+        if (atomic && anyRejected) {
+            List<Message> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(rejected[i] != null ? rejected[i] : createSkipped(calls.get(i)));
             }
+            return CompletableFuture.completedFuture(createBatchResponse(batch, results, false));
+        }
+
+        // Пачка идёт в полосу чтения, только если в ней нет ни одного изменяющего вызова
+        if (!atomic) {
+            return executeSplitBatch(batch, methods, rejected, client, readOnly, deadline);
+        }
 
-            Method method = module.getMethod(methodName);
-            if (method == null) {
-                return createErrorResponse(request, "METHOD_NOT_FOUND",
-                        "Method not found: " + methodName, module.getAvailableMethods());
+        // Атомарная пачка - одна задача, её размер ограничен maxAtomicBatchSize
+        boolean refreshSnapshot = readsSnapshot && WorldSnapshotPublisher.getInstance().getFresh() == null;
+        return onServerThread(batch, needsServerThread || refreshSnapshot, client, readOnly, deadline,
+                getTimeoutMillis(batch), () -> {
+            if (refreshSnapshot) {
+                WorldSnapshotPublisher.getInstance().refresh(ServerLifecycleHooks.getCurrentServer());
             }
+            List<CompletableFuture<Message>> results = new ArrayList<>(size);
+            boolean failed = false;
 
-            Object[] args = convertArguments(request.getArgs(), method.getParameterTypes());
+            for (int i = 0; i < size; i++) {
+                Message call = calls.get(i);
+                if (rejected[i] != null) {
+                    results.add(CompletableFuture.completedFuture(rejected[i]));
+                } else if (failed) {
+                    results.add(CompletableFuture.completedFuture(createSkipped(call)));
+                } else {
+                    CompletableFuture<Message> result = invoke(call, methods[i]);
+                    // Асинхронные вызовы не останавливают атомарную пачку, их исход ещё неизвестен
+                    failed = result.isDone() && isError(result.join());
+                    results.add(result);
+                }
+            }
 
-            Object result = method.invoke(module, args);
+            boolean atomicFailed = failed;
+            return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                    .thenApply(ignored -> {
+                        List<Message> responses = new ArrayList<>(size);
+                        for (CompletableFuture<Message> result : results) {
+                            responses.add(result.join());
+                        }
+                        return createBatchResponse(batch, responses, !atomicFailed);
+                    });
+        });
+    }
 
-            return createSuccessResponse(request, result);
+    /**
+     * Runs each call of a non-atomic batch as its own server-thread task, so the tick budget is
+     * checked between calls. All tasks go to the same lane, which keeps them in batch order.
+     * Calls not marked {@code serverThread} run right away on the calling thread, as they would
+     * outside a batch.
+     */
+    private CompletableFuture<Message> executeSplitBatch(Message batch, ApiMethodInvoker[] methods, Message[] rejected,
+                                                         ApiTaskScheduler.Client client, boolean readOnly, long deadline) {
+        List<Message> calls = batch.getCalls();
+        int size = calls.size();
+        List<CompletableFuture<Message>> results = new ArrayList<>(size);
+        // Истекает срок всей пачки, его и сообщает TIMEOUT отдельного вызова
+        long timeoutMillis = getTimeoutMillis(batch);
 
-        } catch (IllegalArgumentException e) {
-            return createErrorResponse(request, "INVALID_ARGUMENTS",
-                    "Argument type mismatch: " + e.getMessage());
-        } catch (Exception e) {
-            Throwable target = e.getCause() != null ? e.getCause() : e;
-            LOGGER.error("Error dispatching request", target);
-            return createErrorResponse(request, "EXECUTION_ERROR",
-                    "Method execution failed: " + target.getMessage());
-        } finally {
-            pendingRequests.remove(requestId);
+        for (int i = 0; i < size; i++) {
+            Message call = calls.get(i);
+            if (rejected[i] != null) {
+                results.add(CompletableFuture.completedFuture(rejected[i]));
+            } else {
+                ApiMethodInvoker method = methods[i];
+                results.add(schedule(call, method, client, readOnly, deadline, timeoutMillis));
+            }
         }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<Message> responses = new ArrayList<>(size);
+                    for (CompletableFuture<Message> result : results) {
+                        responses.add(result.join());
+                    }
+                    return createBatchResponse(batch, responses, true);
+                });
     }
 
-    private Object[] convertArguments(Object[] rawArgs, Class<?>[] paramTypes) {
-        if (rawArgs == null || rawArgs.length == 0) {
-            return new Object[0];
+    private Resolved resolve(Message request, BaseApiModule specificModule) {
+        Integer methodId = request.getMethodId();
+
+        if (methodId != null && specificModule == null) {
+            RoutedMethod[] table = methodTable;
+            if (methodId < 0 || methodId >= table.length) {
+                return Resolved.error(createErrorResponse(request, "METHOD_NOT_FOUND",
+                        "Unknown method ID: " + methodId + ", use auth.getCatalog()"));
+            }
+            return Resolved.of(table[methodId].module(), table[methodId].invoker());
         }
 
-        Object[] converted = new Object[Math.min(rawArgs.length, paramTypes.length)];
-        for (int i = 0; i < converted.length; i++) {
-            converted[i] = convertArgument(rawArgs[i], paramTypes[i]);
+        String moduleName = request.getModule();
+        String methodName = request.getMethod();
+
+        BaseApiModule module = specificModule != null ? specificModule : modules.get(moduleName);
+        if (module == null) {
+            return Resolved.error(createErrorResponse(request, "MODULE_NOT_FOUND",
+                    "Module not found: " + moduleName, getAvailableModules()));
         }
-        return converted;
-    }
 
-    private Object convertArgument(Object rawArg, Class<?> targetType) {
-        if (rawArg == null) {
-            return null;
+        ApiMethodInvoker method = methodName != null ? module.getMethod(methodName) : null;
+        if (method == null) {
+            return Resolved.error(createErrorResponse(request, "METHOD_NOT_FOUND",
+                    "Method not found: " + methodName, module.getAvailableMethods()));
         }
+        return Resolved.of(module, method);
+    }
+
+    /**
+     * Runs a single call where its annotation says. A {@code snapshot} method with no fresh
+     * snapshot goes through the server thread, which captures one before the call reads it.
+     */
+    private CompletableFuture<Message> schedule(Message request, ApiMethodInvoker method, ApiTaskScheduler.Client client,
+                                                boolean readOnly, long deadline, long timeoutMillis) {
+        boolean refreshSnapshot = needsSnapshotRefresh(method);
+        return onServerThread(request, method.getAnnotation().serverThread() || refreshSnapshot, client, readOnly,
+                deadline, timeoutMillis, () -> invoke(request, method, refreshSnapshot));
+    }
+
+    private static boolean needsSnapshotRefresh(ApiMethodInvoker method) {
+        return method.getAnnotation().snapshot() && WorldSnapshotPublisher.getInstance().getFresh() == null;
+    }
 
-        // Если типы совместимы
-        if (targetType.isInstance(rawArg)) {
-            return rawArg;
+    /**
+     * @param timeoutMillis timeout behind {@code deadline}, reported if the task expires
+     */
+    private CompletableFuture<Message> onServerThread(Message request, boolean serverThread,
+                                                      ApiTaskScheduler.Client client, boolean readOnly, long deadline,
+                                                      long timeoutMillis, Supplier<CompletableFuture<Message>> task) {
+        return onServerThread(request, serverThread, client, readOnly, () -> deadline,
+                response -> response.complete(createTimeout(request, timeoutMillis)), task);
+    }
+
+    /**
+     * @param deadline read when the task's turn comes
+     * @param onExpired called with the pending response instead of the task once the deadline has passed
+     */
+    private CompletableFuture<Message> onServerThread(Message request, boolean serverThread,
+                                                      ApiTaskScheduler.Client client, boolean readOnly,
+                                                      LongSupplier deadline,
+                                                      Consumer<CompletableFuture<Message>> onExpired,
+                                                      Supplier<CompletableFuture<Message>> task) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (!serverThread || server == null || server.isSameThread()) {
+            return task.get();
         }
 
-        try {
-            return mapper.convertValue(rawArg, targetType);
-        } catch (Exception e) {
-            return convertFromString(rawArg.toString(), targetType);
+        // Переход на серверный поток без блокировки вызывающего потока, в пределах бюджета тика.
+        // Если до задачи не дошла очередь к сроку, она не выполняется вовсе
+        CompletableFuture<Message> response = new CompletableFuture<>();
+        ApiTaskScheduler.getInstance().submit(client, readOnly, () -> {
+            if (response.isDone()) {
+                return;
+            }
+            try {
+                task.get().whenComplete((message, error) -> {
+                    if (error != null) {
+                        response.complete(createExecutionError(request, error));
+                    } else {
+                        response.complete(message);
+                    }
+                });
+            } catch (Throwable e) {
+                response.complete(createExecutionError(request, e));
+            }
+        }, deadline, () -> onExpired.accept(response));
+        return response;
+    }
+
+    private CompletableFuture<Message> invoke(Message request, ApiMethodInvoker method, boolean refreshSnapshot) {
+        if (refreshSnapshot) {
+            WorldSnapshotPublisher.getInstance().refresh(ServerLifecycleHooks.getCurrentServer());
         }
+        return invoke(request, method);
     }
 
-    private Object convertFromString(String value, Class<?> targetType) {
+    private CompletableFuture<Message> invoke(Message request, ApiMethodInvoker method) {
+        Object result;
         try {
-            if (targetType == String.class) return value;
-            if (targetType == int.class || targetType == Integer.class) return Integer.parseInt(value);
-            if (targetType == double.class || targetType == Double.class) return Double.parseDouble(value);
-            if (targetType == boolean.class || targetType == Boolean.class) return Boolean.parseBoolean(value);
-            if (targetType == float.class || targetType == Float.class) return Float.parseFloat(value);
-            if (targetType == long.class || targetType == Long.class) return Long.parseLong(value);
-            if (targetType == UUID.class) return UUID.fromString(value);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Cannot convert '" + value + "' to " + targetType.getSimpleName());
+            result = method.invoke(request.getArgs());
+        } catch (ApiArgumentException e) {
+            return CompletableFuture.completedFuture(createErrorResponse(request, "INVALID_ARGUMENTS",
+                    "Argument type mismatch: " + e.getMessage()));
+        } catch (Throwable e) {
+            return CompletableFuture.completedFuture(createExecutionError(request, e));
         }
 
-        throw new IllegalArgumentException("Unsupported target type: " + targetType.getSimpleName());
-    }
+        // Метод может вернуть CompletableFuture, ответ уходит после его завершения
+        if (result instanceof CompletionStage<?> stage) {
+            return stage.toCompletableFuture().handle((value, error) -> error == null
+                    ? createSuccessResponse(request, value)
+                    : createExecutionError(request, error));
+        }
 
-    private boolean isValidHex(String str) {
-        return str.matches("[0-9a-fA-F]{1,4}");
+        Message response = createSuccessResponse(request, result);
+        if (method.getAnnotation().snapshot()) {
+            WorldSnapshot snapshot = WorldSnapshotPublisher.getInstance().getCurrent();
+            if (snapshot != null) {
+                response.setSnapshotAgeMs(snapshot.getAgeMillis());
+            }
+        }
+        return CompletableFuture.completedFuture(response);
     }
 
-    public void registerModule(BaseApiModule module) {
+    public synchronized void registerModule(BaseApiModule module) {
         module.discoverMethods();
         modules.put(module.getModuleName(), module);
+
+        List<RoutedMethod> table = new ArrayList<>(Arrays.asList(methodTable));
+        Map<String, Integer> newCatalog = new LinkedHashMap<>(catalog);
+        List<ApiMethodInvoker> invokers = new ArrayList<>(module.getInvokers());
+        invokers.sort(Comparator.comparing(ApiMethodInvoker::getName));
+        for (ApiMethodInvoker invoker : invokers) {
+            newCatalog.put(module.getModuleName() + "." + invoker.getName(), table.size());
+            table.add(new RoutedMethod(module, invoker));
+        }
+        methodTable = table.toArray(new RoutedMethod[0]);
+        catalog = Collections.unmodifiableMap(newCatalog);
+
         LOGGER.info("Registered API module: {}", module.getModuleName());
     }
 
+    /**
+     * Numeric IDs for every registered "module.method", usable as {@code methodId} in requests.
+     */
+    public Map<String, Integer> getCatalog() {
+        return catalog;
+    }
+
     private Message createSuccessResponse(Message request, Object data) {
         Message response = new Message("RESPONSE", request.getRequestId());
         response.setStatus("SUCCESS");
@@ -135,6 +432,43 @@ public class ReflectiveApiDispatcher {
         return response;
     }
 
+    private Message forRequest(Message shared, Message request) {
+        if (Objects.equals(shared.getRequestId(), request.getRequestId())) {
+            return shared;
+        }
+        Message response = new Message(shared.getType(), request.getRequestId());
+        response.setStatus(shared.getStatus());
+        response.setData(shared.getData());
+        response.setSnapshotAgeMs(shared.getSnapshotAgeMs());
+        return response;
+    }
+
+    private Message createBatchResponse(Message batch, List<Message> results, boolean success) {
+        Message response = new Message("RESPONSE", batch.getRequestId());
+        response.setStatus(success ? "SUCCESS" : "ERROR");
+        response.setData(results);
+        return response;
+    }
+
+    private Message createSkipped(Message call) {
+        return createErrorResponse(call, "SKIPPED", "Not executed because another call in the atomic batch failed");
+    }
+
+    private static boolean isError(Message response) {
+        return "ERROR".equals(response.getStatus());
+    }
+
+    private Message createTimeout(Message request, long timeoutMillis) {
+        return createErrorResponse(request, "TIMEOUT", "Request did not complete within " + timeoutMillis + " ms");
+    }
+
+    private Message createExecutionError(Message request, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        LOGGER.error("Error dispatching request", cause);
+        return createErrorResponse(request, "EXECUTION_ERROR",
+                "Method execution failed: " + cause.getMessage());
+    }
+
     private Message createErrorResponse(Message request, String errorCode, String message) {
         return createErrorResponse(request, errorCode, message, null);
     }
@@ -158,4 +492,16 @@ public class ReflectiveApiDispatcher {
     private List<String> getAvailableModules() {
         return new ArrayList<>(modules.keySet());
     }
-}
\ No newline at end of file
+
+    private record RoutedMethod(BaseApiModule module, ApiMethodInvoker invoker) {}
+
+    private record Resolved(BaseApiModule module, ApiMethodInvoker method, Message error) {
+        static Resolved of(BaseApiModule module, ApiMethodInvoker method) {
+            return new Resolved(module, method, null);
+        }
+
+        static Resolved error(Message error) {
+            return new Resolved(null, null, error);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package me.adda.mcwebapi.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Single-flight execution of {@code idempotent} API methods. While a call is running, identical
+ * calls (same module, method and arguments) wait for its result instead of running again.
+ * Nothing is cached: once the call completes, the next identical request executes anew.
+ *
+ * <p>The execution is queued on the lane of the client that started it, with the latest
+ * deadline of everyone waiting for it, pushed back as more requests join. If all waiters have
+ * disconnected or timed out before it starts, it is dropped without running. Each waiter still
+ * applies its own timeout to the returned future.
+ */
+public class RequestCoalescer {
+    private static final RequestCoalescer INSTANCE = new RequestCoalescer();
+
+    private final Map<String, Flight> pending = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> hitsByMethod = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    public static RequestCoalescer getInstance() {
+        return INSTANCE;
+    }
+
+    private RequestCoalescer() {
+        // private constructor for singleton
+    }
+
+    /**
+     * Joins the running execution of {@code method} with equal {@code args}, or starts one.
+     * The returned response still carries the request ID of whichever request started it.
+     *
+     * @param deadline the caller's {@link System#nanoTime()} deadline
+     * @param execution starts the call; it must check {@link Flight#start} before doing any work
+     *                  and use {@link Flight#deadline} as the deadline of a queued task
+     */
+    public CompletableFuture<Message> coalesce(String method, JsonNode args, ApiTaskScheduler.Client client,
+                                               long deadline, Function<Flight, CompletableFuture<Message>> execution) {
+        String key = method + canonical(args);
+        Flight flight = new Flight(key, client, deadline);
+        while (true) {
+            Flight running = pending.putIfAbsent(key, flight);
+            if (running == null) {
+                break;
+            }
+            if (running.join(client, deadline)) {
+                hits.increment();
+                hitsByMethod.computeIfAbsent(method, m -> new LongAdder()).increment();
+                return running.result;
+            }
+            // Брошенное выполнение ещё не убрано из pending
+            pending.remove(key, running);
+        }
+
+        executions.increment();
+        try {
+            execution.apply(flight).whenComplete(flight::finish);
+        } catch (Throwable e) {
+            flight.finish(null, e);
+        }
+        return flight.result;
+    }
+
+    /**
+     * One execution and the requests waiting for it.
+     */
+    public final class Flight {
+        private final String key;
+        private final CompletableFuture<Message> result = new CompletableFuture<>();
+        // Пока выполнение не началось; после старта ожидающие больше не нужны
+        private List<Waiter> waiters = new ArrayList<>();
+        private long latest;
+        private boolean started;
+        private boolean cancelled;
+
+        private Flight(String key, ApiTaskScheduler.Client client, long deadline) {
+            this.key = key;
+            this.latest = deadline;
+            waiters.add(new Waiter(client, deadline));
+        }
+
+        /**
+         * Latest deadline among the waiters, for the queued task.
+         */
+        public synchronized long deadline() {
+            return latest;
+        }
+
+        /**
+         * Called right before the work. Returns false, and drops the execution, if nobody is
+         * waiting for it any more.
+         */
+        public synchronized boolean start() {
+            if (cancelled) {
+                return false;
+            }
+            long now = System.nanoTime();
+            for (Waiter waiter : waiters) {
+                if (waiter.isWaiting(now)) {
+                    started = true;
+                    waiters = null;
+                    return true;
+                }
+            }
+            cancel();
+            return false;
+        }
+
+        /**
+         * Drops the execution if it has not started, e.g. when its queued task expired.
+         */
+        public synchronized void cancel() {
+            if (started || cancelled) {
+                return;
+            }
+            cancelled = true;
+            waiters = null;
+            pending.remove(key, this);
+            abandoned.increment();
+        }
+
+        private synchronized boolean join(ApiTaskScheduler.Client client, long deadline) {
+            if (started) {
+                return true;
+            }
+            // Срок всех ожидающих прошёл: задача уже просрочена, даже если очередь до неё не дошла
+            if (cancelled || System.nanoTime() - latest > 0) {
+                cancel();
+                return false;
+            }
+            waiters.add(new Waiter(client, deadline));
+            if (deadline - latest > 0) {
+                latest = deadline;
+            }
+            return true;
+        }
+
+        private void finish(Message response, Throwable error) {
+            pending.remove(key, this);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        }
+    }
+
+    private record Waiter(ApiTaskScheduler.Client client, long deadline) {
+        boolean isWaiting(long now) {
+            return (client == null || !client.isClosed()) && now - deadline <= 0;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("executions", executions.sum());
+        stats.put("hits", hits.sum());
+        stats.put("pending", pending.size());
+        stats.put("abandoned", abandoned.sum());
+
+        Map<String, Long> methods = new HashMap<>();
+        hitsByMethod.forEach((method, count) -> methods.put(method, count.sum()));
+        stats.put("hitsByMethod", methods);
+        return stats;
+    }
+
+    /**
+     * Argument text that is equal for equal arguments: object fields sorted, numbers without
+     * trailing zeros, so {@code {"x":1,"z":2.0}} and {@code {"z":2,"x":1}} share a key.
+     */
+    static String canonical(JsonNode args) {
+        StringBuilder out = new StringBuilder();
+        appendCanonical(out, args);
+        return out.toString();
+    }
+
+    private static void appendCanonical(StringBuilder out, JsonNode node) {
+        if (node == null || node.isMissingNode()) {
+            out.append("()");
+        } else if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            Iterator<String> fields = node.fieldNames();
+            fields.forEachRemaining(names::add);
+            Collections.sort(names);
+
+            out.append('{');
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(names.get(i).length()).append(':').append(names.get(i)).append('=');
+                appendCanonical(out, node.get(names.get(i)));
+            }
+            out.append('}');
+        } else if (node.isArray()) {
+            out.append('[');
+            for (int i = 0; i < node.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendCanonical(out, node.get(i));
+            }
+            out.append(']');
+        } else if (node.isNumber() && (!node.isFloatingPointNumber() || Double.isFinite(node.doubleValue()))) {
+            out.append(node.decimalValue().stripTrailingZeros().toPlainString());
+        } else {
+            // Строки экранируются Jackson, null/true/false пишутся как есть
+            out.append(node);
+        }
+    }
+}
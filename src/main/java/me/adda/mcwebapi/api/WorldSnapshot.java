@@ -0,0 +1,119 @@
+package me.adda.mcwebapi.api;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable copy of frequently read game state, taken on the server thread at the end of a tick.
+ * Any thread can read it without touching live entities; the values are as old as
+ * {@link #getAgeMillis()}.
+ */
+public final class WorldSnapshot {
+    private final long tick;
+    private final long capturedNanos;
+    // Ключ - имя в нижнем регистре, как при поиске через PlayerList.getPlayerByName
+    private final Map<String, PlayerState> playersByName;
+    private final Map<UUID, PlayerState> playersByUuid;
+    private final Map<String, LevelState> levels;
+
+    private WorldSnapshot(long tick, Map<String, PlayerState> playersByName, Map<UUID, PlayerState> playersByUuid,
+                          Map<String, LevelState> levels) {
+        this.tick = tick;
+        this.capturedNanos = System.nanoTime();
+        this.playersByName = Collections.unmodifiableMap(playersByName);
+        this.playersByUuid = Collections.unmodifiableMap(playersByUuid);
+        this.levels = Collections.unmodifiableMap(levels);
+    }
+
+    /**
+     * Must be called on the server thread.
+     */
+    static WorldSnapshot capture(MinecraftServer server) {
+        Map<String, PlayerState> byName = new HashMap<>();
+        Map<UUID, PlayerState> byUuid = new HashMap<>();
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            PlayerState state = new PlayerState(
+                    player.getScoreboardName(),
+                    player.getUUID(),
+                    player.getHealth(),
+                    player.getMaxHealth(),
+                    player.getFoodData().getFoodLevel(),
+                    player.getFoodData().getSaturationLevel(),
+                    player.gameMode.getGameModeForPlayer().getName(),
+                    player.level().dimension().location().toString(),
+                    player.getX(),
+                    player.getY(),
+                    player.getZ(),
+                    player.getYRot(),
+                    player.getXRot(),
+                    player.connection.latency());
+            byName.put(state.name().toLowerCase(Locale.ROOT), state);
+            byUuid.put(state.uuid(), state);
+        }
+
+        Map<String, LevelState> levels = new HashMap<>();
+        for (ServerLevel level : server.getAllLevels()) {
+            // Те же сущности, что обходит getAllEntities() (доступные в загруженных чанках), но без обхода.
+            // PersistentEntitySectionManager.count() сюда не подходит: он считает и недоступные.
+            // Поля открыты access transformer'ом
+            int entityCount = level.entityManager.visibleEntityStorage.count();
+            String dimension = level.dimension().location().toString();
+            levels.put(dimension, new LevelState(dimension, entityCount, level.players().size()));
+        }
+
+        return new WorldSnapshot(server.getTickCount(), byName, byUuid, levels);
+    }
+
+    /**
+     * Looks a player up by name (case-insensitive) or UUID, like {@code BaseApiModule.findPlayer}.
+     */
+    public PlayerState findPlayer(String identifier) {
+        if (identifier == null) {
+            return null;
+        }
+        PlayerState state = playersByName.get(identifier.toLowerCase(Locale.ROOT));
+        if (state != null) {
+            return state;
+        }
+        try {
+            return playersByUuid.get(UUID.fromString(identifier));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public LevelState getLevel(String levelId) {
+        ResourceLocation location = levelId != null ? ResourceLocation.tryParse(levelId) : null;
+        return location != null ? levels.get(location.toString()) : null;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getAgeMillis() {
+        return (System.nanoTime() - capturedNanos) / 1_000_000L;
+    }
+
+    public int getPlayerCount() {
+        return playersByUuid.size();
+    }
+
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    public record PlayerState(String name, UUID uuid, float health, float maxHealth, int food, float saturation,
+                              String gameMode, String dimension, double x, double y, double z,
+                              float yaw, float pitch, int ping) {}
+
+    public record LevelState(String dimension, int entityCount, int playerCount) {}
+}
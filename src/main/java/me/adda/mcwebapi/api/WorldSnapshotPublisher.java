@@ -0,0 +1,154 @@
+package me.adda.mcwebapi.api;
+
+import me.adda.mcwebapi.config.Config;
+import net.minecraft.server.MinecraftServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Captures a {@link WorldSnapshot} at the end of every {@code intervalTicks}-th tick and publishes it
+ * through a volatile reference. Methods marked {@code snapshot = true} read from it on the
+ * caller's thread instead of queueing for the server thread.
+ *
+ * <p>A snapshot is only captured if the previous one was read, and none is kept while no client
+ * is connected. A read that finds no snapshot, or one older than {@code intervalTicks}, goes
+ * through the server thread instead and captures a fresh one there with {@link #refresh}.
+ */
+public class WorldSnapshotPublisher {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final WorldSnapshotPublisher INSTANCE = new WorldSnapshotPublisher();
+
+    private volatile WorldSnapshot current;
+    // Читали ли снимок после последнего захвата
+    private volatile boolean read;
+    // Номер последнего завершённого тика, по нему считается свежесть снимка
+    private volatile int lastTick;
+
+    // Пишутся только из серверного потока
+    private int ticksSinceCapture;
+    private volatile long captures;
+    private volatile long onDemandCaptures;
+    private volatile long idleSkips;
+    private volatile long lastCaptureNanos;
+    private volatile long maxCaptureNanos;
+
+    public static WorldSnapshotPublisher getInstance() {
+        return INSTANCE;
+    }
+
+    private WorldSnapshotPublisher() {
+        // private constructor for singleton
+    }
+
+    /**
+     * Called on the server thread at the end of each tick.
+     *
+     * @param hasClients whether any authenticated API client is connected
+     */
+    public void onTick(MinecraftServer server, boolean hasClients) {
+        lastTick = server.getTickCount();
+        if (!hasClients) {
+            // Переподключившийся клиент не должен получить снимок многотиковой давности
+            current = null;
+            read = false;
+            return;
+        }
+
+        WorldSnapshot snapshot = current;
+        if (snapshot != null && snapshot.getTick() == lastTick) {
+            // Уже снят в этом тике по запросу через refresh
+            ticksSinceCapture = 0;
+            return;
+        }
+        if (++ticksSinceCapture < Config.SERVER.snapshotIntervalTicks.get()) {
+            return;
+        }
+        if (!read) {
+            idleSkips++;
+            return;
+        }
+        ticksSinceCapture = 0;
+        capture(server);
+    }
+
+    /**
+     * Captures a snapshot now unless one was already taken this tick. Server thread only; used
+     * by reads that found no fresh snapshot.
+     */
+    public void refresh(MinecraftServer server) {
+        if (server == null) {
+            return;
+        }
+        WorldSnapshot snapshot = current;
+        if (snapshot == null || snapshot.getTick() != server.getTickCount()) {
+            onDemandCaptures++;
+            capture(server);
+        }
+    }
+
+    private void capture(MinecraftServer server) {
+        long start = System.nanoTime();
+        try {
+            current = WorldSnapshot.capture(server);
+            read = false;
+        } catch (Exception e) {
+            LOGGER.error("Failed to capture world snapshot", e);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        captures++;
+        lastCaptureNanos = elapsed;
+        if (elapsed > maxCaptureNanos) {
+            maxCaptureNanos = elapsed;
+        }
+    }
+
+    /**
+     * Latest snapshot, or null if none has been captured since a client connected.
+     */
+    public WorldSnapshot getCurrent() {
+        if (!read) {
+            read = true;
+        }
+        return current;
+    }
+
+    /**
+     * Latest snapshot if it is at most {@code intervalTicks} old, otherwise null.
+     */
+    public WorldSnapshot getFresh() {
+        WorldSnapshot snapshot = getCurrent();
+        if (snapshot == null || lastTick - snapshot.getTick() >= Config.SERVER.snapshotIntervalTicks.get()) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    public void clear() {
+        current = null;
+    }
+
+    public Map<String, Object> getStats() {
+        // Статистика не считается чтением, иначе панель мониторинга держала бы захват включённым
+        WorldSnapshot snapshot = current;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("available", snapshot != null);
+        if (snapshot != null) {
+            stats.put("tick", snapshot.getTick());
+            stats.put("ageMillis", snapshot.getAgeMillis());
+            stats.put("players", snapshot.getPlayerCount());
+            stats.put("levels", snapshot.getLevelCount());
+        }
+        stats.put("intervalTicks", Config.SERVER.snapshotIntervalTicks.get());
+        stats.put("captures", captures);
+        stats.put("onDemandCaptures", onDemandCaptures);
+        stats.put("idleSkips", idleSkips);
+        stats.put("lastCaptureMicros", lastCaptureNanos / 1000);
+        stats.put("maxCaptureMicros", maxCaptureNanos / 1000);
+        return stats;
+    }
+}
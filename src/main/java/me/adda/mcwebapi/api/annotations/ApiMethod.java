@@ -10,4 +10,30 @@ import java.lang.annotation.Target;
 public @interface ApiMethod {
     String value() default "";
     String description() default "";
+
+    /**
+     * Run on the Minecraft server thread. Methods that only read thread-safe state
+     * (metrics, config, connection info) can opt out and run on the caller's thread.
+     */
+    boolean serverThread() default true;
+
+    /**
+     * The method only reads game state. Read-only calls queue in their own lane on the server
+     * thread and are not held up behind mutations, such as a bulk build from another client.
+     */
+    boolean readOnly() default false;
+
+    /**
+     * The method reads from the per-tick {@code WorldSnapshot} rather than live state. Such
+     * methods should not need the server thread; their responses carry {@code snapshotAgeMs}.
+     * Without a snapshot at most {@code intervalTicks} old, the call goes through the server
+     * thread, which captures one first.
+     */
+    boolean snapshot() default false;
+
+    /**
+     * Identical concurrent calls may share one execution. Only for methods without side
+     * effects whose result depends on nothing but the arguments and current game state.
+     */
+    boolean idempotent() default false;
 }
\ No newline at end of file
@@ -1,14 +1,18 @@
 package me.adda.mcwebapi.api.modules;
 
 import me.adda.mcwebapi.api.BaseApiModule;
+import me.adda.mcwebapi.api.ReflectiveApiDispatcher;
 import me.adda.mcwebapi.api.annotations.ApiMethod;
 import me.adda.mcwebapi.api.annotations.ApiModule;
 import me.adda.mcwebapi.websocket.AuthManager;
+import me.adda.mcwebapi.websocket.SessionCipher;
 import me.adda.mcwebapi.config.Config;
 import io.netty.channel.Channel;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.security.GeneralSecurityException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,15 +20,17 @@ import java.util.Map;
 public class AuthApiModule extends BaseApiModule {
     private static final Logger LOGGER = LogManager.getLogger();
     private final AuthManager authManager;
+    private final ReflectiveApiDispatcher dispatcher;
     private Channel currentChannel;
 
-    public AuthApiModule(Channel channel) {
+    public AuthApiModule(Channel channel, ReflectiveApiDispatcher dispatcher) {
         this.discoverMethods();
         this.authManager = AuthManager.getInstance();
+        this.dispatcher = dispatcher;
         this.currentChannel = channel;
     }
 
-    @ApiMethod("authenticate")
+    @ApiMethod(value = "authenticate", serverThread = false)
     public Map<String, Object> authenticate(String authKey) {
         Map<String, Object> result = new HashMap<>();
 
@@ -38,13 +44,26 @@ public class AuthApiModule extends BaseApiModule {
         boolean success = authManager.authenticate(currentChannel, authKey);
         result.put("success", success);
         result.put("message", success ? "Authentication successful" : "Authentication failed");
+        if (success) {
+            result.put("identity", authManager.getIdentity(currentChannel));
+        }
+
+        SessionCipher cipher = currentChannel.attr(SessionCipher.KEY).get();
+        if (success && cipher != null) {
+            try {
+                byte[] salt = cipher.prepareSessionKeys(authKey);
+                result.put("sessionSalt", Base64.getEncoder().encodeToString(salt));
+            } catch (GeneralSecurityException e) {
+                LOGGER.error("Failed to derive session keys for {}", currentChannel.remoteAddress(), e);
+            }
+        }
 
         LOGGER.info("Authentication attempt from {}: {}", currentChannel.remoteAddress(), success ? "SUCCESS" : "FAILED");
 
         return result;
     }
 
-    @ApiMethod("getInfo")
+    @ApiMethod(value = "getInfo", serverThread = false)
     public Map<String, Object> getAuthInfo() {
         Map<String, Object> info = new HashMap<>();
 
@@ -62,7 +81,7 @@ public class AuthApiModule extends BaseApiModule {
         return info;
     }
 
-    @ApiMethod("check")
+    @ApiMethod(value = "check", serverThread = false)
     public Map<String, Object> checkAuth() {
         Map<String, Object> result = new HashMap<>();
 
@@ -73,6 +92,20 @@ public class AuthApiModule extends BaseApiModule {
         return result;
     }
 
+    @ApiMethod(value = "getCatalog", serverThread = false)
+    public Map<String, Object> getCatalog() {
+        Map<String, Object> result = new HashMap<>();
+
+        boolean authenticated = currentChannel != null && authManager.isAuthenticated(currentChannel);
+        result.put("authenticated", authenticated);
+        if (authenticated) {
+            // "module.method" -> ID, дальше запросы могут передавать только methodId
+            result.put("methods", dispatcher.getCatalog());
+        }
+
+        return result;
+    }
+
     public void setChannel(Channel channel) {
         this.currentChannel = channel;
     }
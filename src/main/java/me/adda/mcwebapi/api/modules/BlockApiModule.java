@@ -25,7 +25,7 @@ import java.util.concurrent.ExecutionException;
 
 @ApiModule("block")
 public class BlockApiModule extends BaseApiModule {
-    @ApiMethod("getBlock")
+    @ApiMethod(value = "getBlock", readOnly = true, idempotent = true)
     public Map<String, Object> getBlock(String levelId, int x, int y, int z) {
         return executeOnServerThread(() -> {
             ServerLevel level = getLevel(levelId);
@@ -87,7 +87,7 @@ public class BlockApiModule extends BaseApiModule {
         }));
     }
 
-    @ApiMethod("getInventory")
+    @ApiMethod(value = "getInventory", readOnly = true, idempotent = true)
     public Map<String, Object> getInventory(String levelId, int x, int y, int z) {
         return executeOnServerThread(() -> {
             ServerLevel level = getLevel(levelId);
@@ -190,7 +190,7 @@ public class BlockApiModule extends BaseApiModule {
         }));
     }
 
-    @ApiMethod("getFurnaceInfo")
+    @ApiMethod(value = "getFurnaceInfo", readOnly = true, idempotent = true)
     public Map<String, Object> getFurnaceInfo(String levelId, int x, int y, int z) {
         return executeOnServerThread(() -> {
             ServerLevel level = getLevel(levelId);
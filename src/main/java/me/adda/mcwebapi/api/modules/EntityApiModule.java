@@ -98,7 +98,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getInfo")
+    @ApiMethod(value = "getInfo", readOnly = true, idempotent = true)
     public Map<String, Object> getInfo(String levelId, String entityUuid) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return null;
@@ -143,7 +143,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getPosition")
+    @ApiMethod(value = "getPosition", readOnly = true, idempotent = true)
     public Map<String, Double> getPosition(String levelId, String entityUuid) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return null;
@@ -205,7 +205,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getCustomName")
+    @ApiMethod(value = "getCustomName", readOnly = true, idempotent = true)
     public String getCustomName(String levelId, String entityUuid) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return null;
@@ -305,7 +305,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getEntitiesInRadius")
+    @ApiMethod(value = "getEntitiesInRadius", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getEntitiesInRadius(String levelId, double x, double y, double z, double radius) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return Collections.emptyList();
@@ -320,7 +320,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getEntitiesByType")
+    @ApiMethod(value = "getEntitiesByType", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getEntitiesByType(String levelId, String entityTypeId) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return Collections.emptyList();
@@ -343,7 +343,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getAllEntities")
+    @ApiMethod(value = "getAllEntities", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getAllEntities(String levelId) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return Collections.emptyList();
@@ -357,7 +357,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getEntityCount")
+    @ApiMethod(value = "getEntityCount", readOnly = true, idempotent = true)
     public int getEntityCount(String levelId) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return -1;
@@ -371,7 +371,7 @@ public class EntityApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getEntityCountByType")
+    @ApiMethod(value = "getEntityCountByType", readOnly = true, idempotent = true)
     public int getEntityCountByType(String levelId, String entityTypeId) {
         ServerLevel level = getLevel(levelId);
         if (level == null) return -1;
@@ -1,6 +1,8 @@
 package me.adda.mcwebapi.api.modules;
 
 import me.adda.mcwebapi.api.BaseApiModule;
+import me.adda.mcwebapi.api.WorldSnapshot;
+import me.adda.mcwebapi.api.WorldSnapshotPublisher;
 import me.adda.mcwebapi.api.annotations.ApiMethod;
 import me.adda.mcwebapi.api.annotations.ApiModule;
 import net.minecraft.core.Holder;
@@ -37,10 +39,10 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getHealth")
+    @ApiMethod(value = "getHealth", serverThread = false, readOnly = true, snapshot = true)
     public float getHealth(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.getHealth() : -1.0f;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.health() : -1.0f;
     }
 
     @ApiMethod("setHealth")
@@ -53,47 +55,47 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getMaxHealth")
+    @ApiMethod(value = "getMaxHealth", serverThread = false, readOnly = true, snapshot = true)
     public float getMaxHealth(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.getMaxHealth() : -1.0f;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.maxHealth() : -1.0f;
     }
 
-    @ApiMethod("getX")
+    @ApiMethod(value = "getX", serverThread = false, readOnly = true, snapshot = true)
     public Double getX(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
         if (player != null) {
-            return player.getX();
+            return player.x();
         }
         return null;
     }
 
-    @ApiMethod("getY")
+    @ApiMethod(value = "getY", serverThread = false, readOnly = true, snapshot = true)
     public Double getY(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
         if (player != null) {
-            return player.getY();
+            return player.y();
         }
         return null;
     }
 
-    @ApiMethod("getZ")
+    @ApiMethod(value = "getZ", serverThread = false, readOnly = true, snapshot = true)
     public Double getZ(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
         if (player != null) {
-            return player.getZ();
+            return player.z();
         }
         return null;
     }
 
-    @ApiMethod("getPosition")
+    @ApiMethod(value = "getPosition", serverThread = false, readOnly = true, snapshot = true)
     public Map<String, Double> getPosition(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
         if (player != null) {
             Map<String, Double> pos = new HashMap<>();
-            pos.put("x", player.getX());
-            pos.put("y", player.getY());
-            pos.put("z", player.getZ());
+            pos.put("x", player.x());
+            pos.put("y", player.y());
+            pos.put("z", player.z());
             return pos;
         }
         return null;
@@ -146,10 +148,10 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getFood")
+    @ApiMethod(value = "getFood", serverThread = false, readOnly = true, snapshot = true)
     public int getFoodLevel(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.getFoodData().getFoodLevel() : -1;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.food() : -1;
     }
 
     @ApiMethod("setFood")
@@ -162,10 +164,10 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getSaturation")
+    @ApiMethod(value = "getSaturation", serverThread = false, readOnly = true, snapshot = true)
     public float getSaturation(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.getFoodData().getSaturationLevel() : -1.0f;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.saturation() : -1.0f;
     }
 
     @ApiMethod("setSaturation")
@@ -178,7 +180,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getExperience")
+    @ApiMethod(value = "getExperience", readOnly = true, idempotent = true)
     public Map<String, Integer> getExperience(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         Map<String, Integer> exp = new HashMap<>();
@@ -200,10 +202,10 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getGameMode")
+    @ApiMethod(value = "getGameMode", serverThread = false, readOnly = true, snapshot = true)
     public String getGameMode(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.gameMode.getGameModeForPlayer().getName() : null;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.gameMode() : null;
     }
 
     @ApiMethod("setGameMode")
@@ -221,7 +223,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getInventory")
+    @ApiMethod(value = "getInventory", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getInventory(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         List<Map<String, Object>> inventory = new ArrayList<>();
@@ -251,7 +253,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getEffects")
+    @ApiMethod(value = "getEffects", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getEffects(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         List<Map<String, Object>> effects = new ArrayList<>();
@@ -295,7 +297,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getScore")
+    @ApiMethod(value = "getScore", readOnly = true, idempotent = true)
     public int getScore(String identifier, String objective) {
         ServerPlayer player = findPlayer(identifier);
         if (player != null) {
@@ -364,7 +366,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getAdvancements")
+    @ApiMethod(value = "getAdvancements", readOnly = true, idempotent = true)
     public Map<String, Object> getAdvancements(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         Map<String, Object> result = new HashMap<>();
@@ -424,40 +426,38 @@ public class PlayerApiModule extends BaseApiModule {
         return result;
     }
 
-    @ApiMethod("getUUID")
+    @ApiMethod(value = "getUUID", readOnly = true, idempotent = true)
     public String getUUID(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         return player != null ? player.getUUID().toString() : null;
     }
 
-    @ApiMethod("isOnline")
+    @ApiMethod(value = "isOnline", readOnly = true, idempotent = true)
     public boolean isOnline(String identifier) {
         return findPlayer(identifier) != null;
     }
 
-    @ApiMethod("getPing")
+    @ApiMethod(value = "getPing", serverThread = false, readOnly = true, snapshot = true)
     public int getPing(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.connection.latency() : -1;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.ping() : -1;
     }
 
-    @ApiMethod("getWorld")
+    @ApiMethod(value = "getWorld", serverThread = false, readOnly = true, snapshot = true)
     public String getWorld(String identifier) {
-        ServerPlayer player = findPlayer(identifier);
-        return player != null ? player.level().dimension().location().toString() : null;
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        return player != null ? player.dimension() : null;
     }
 
-    @ApiMethod("getRotation")
+    @ApiMethod(value = "getRotation", serverThread = false, readOnly = true, snapshot = true)
     public Map<String, Float> getRotation(String identifier) {
-        return executeOnServerThread(() -> {
-            ServerPlayer player = findPlayer(identifier);
-            Map<String, Float> rotation = new HashMap<>();
-            if (player != null) {
-                rotation.put("yaw", player.getYRot());
-                rotation.put("pitch", player.getXRot());
-            }
-            return rotation;
-        });
+        WorldSnapshot.PlayerState player = findSnapshotPlayer(identifier);
+        Map<String, Float> rotation = new HashMap<>();
+        if (player != null) {
+            rotation.put("yaw", player.yaw());
+            rotation.put("pitch", player.pitch());
+        }
+        return rotation;
     }
 
     @ApiMethod("setRotation")
@@ -479,7 +479,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getVelocity")
+    @ApiMethod(value = "getVelocity", readOnly = true, idempotent = true)
     public Map<String, Double> getVelocity(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         Map<String, Double> velocity = new HashMap<>();
@@ -504,7 +504,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getArmor")
+    @ApiMethod(value = "getArmor", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getArmor(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         List<Map<String, Object>> armor = new ArrayList<>();
@@ -524,7 +524,7 @@ public class PlayerApiModule extends BaseApiModule {
         return armor;
     }
 
-    @ApiMethod("getEnderChest")
+    @ApiMethod(value = "getEnderChest", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getEnderChest(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         List<Map<String, Object>> enderChest = new ArrayList<>();
@@ -554,7 +554,7 @@ public class PlayerApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getPlayerInfo")
+    @ApiMethod(value = "getPlayerInfo", readOnly = true, idempotent = true)
     public Map<String, Object> getPlayerInfo(String identifier) {
         ServerPlayer player = findPlayer(identifier);
         Map<String, Object> info = new HashMap<>();
@@ -578,4 +578,10 @@ public class PlayerApiModule extends BaseApiModule {
         }
         return info;
     }
-}
\ No newline at end of file
+
+    // Игрок из последнего снимка мира; читается с любого потока
+    private WorldSnapshot.PlayerState findSnapshotPlayer(String identifier) {
+        WorldSnapshot snapshot = WorldSnapshotPublisher.getInstance().getCurrent();
+        return snapshot != null ? snapshot.findPlayer(identifier) : null;
+    }
+}
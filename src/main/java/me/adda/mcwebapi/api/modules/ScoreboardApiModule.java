@@ -62,7 +62,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getObjectives")
+    @ApiMethod(value = "getObjectives", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getObjectives() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -75,7 +75,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getObjective")
+    @ApiMethod(value = "getObjective", readOnly = true, idempotent = true)
     public Map<String, Object> getObjective(String name) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -106,7 +106,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getDisplaySlots")
+    @ApiMethod(value = "getDisplaySlots", readOnly = true, idempotent = true)
     public Map<String, String> getDisplaySlots() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyMap();
@@ -157,7 +157,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getTeams")
+    @ApiMethod(value = "getTeams", readOnly = true, idempotent = true)
     public List<Map<String, Object>> getTeams() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -170,7 +170,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getTeam")
+    @ApiMethod(value = "getTeam", readOnly = true, idempotent = true)
     public Map<String, Object> getTeam(String name) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -305,7 +305,7 @@ public class ScoreboardApiModule extends BaseApiModule {
 
     // ===== SCORES =====
 
-    @ApiMethod("getScore")
+    @ApiMethod(value = "getScore", readOnly = true, idempotent = true)
     public Integer getScore(String objectiveName, String target) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -378,7 +378,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getScores")
+    @ApiMethod(value = "getScores", readOnly = true, idempotent = true)
     public Map<String, Integer> getScores(String target) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyMap();
@@ -399,7 +399,7 @@ public class ScoreboardApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getObjectiveScores")
+    @ApiMethod(value = "getObjectiveScores", readOnly = true, idempotent = true)
     public Map<String, Integer> getObjectiveScores(String objectiveName) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyMap();
@@ -1,8 +1,17 @@
 package me.adda.mcwebapi.api.modules;
 
+import me.adda.mcwebapi.api.ApiTaskScheduler;
+import me.adda.mcwebapi.api.RequestCoalescer;
+import me.adda.mcwebapi.api.WorldSnapshotPublisher;
 import me.adda.mcwebapi.api.BaseApiModule;
 import me.adda.mcwebapi.api.annotations.ApiMethod;
 import me.adda.mcwebapi.api.annotations.ApiModule;
+import me.adda.mcwebapi.websocket.AdaptiveCompressionFilter;
+import me.adda.mcwebapi.websocket.BufferAllocators;
+import me.adda.mcwebapi.websocket.ConnectionMetrics;
+import me.adda.mcwebapi.websocket.NettyTransport;
+import me.adda.mcwebapi.websocket.TrafficTap;
+import me.adda.mcwebapi.websocket.WebSocketServer;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
@@ -17,7 +26,7 @@ import java.util.stream.Collectors;
 @ApiModule("server")
 public class ServerApiModule extends BaseApiModule {
 
-    @ApiMethod("getInfo")
+    @ApiMethod(value = "getInfo", readOnly = true, idempotent = true)
     public Map<String, Object> getInfo() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -37,37 +46,37 @@ public class ServerApiModule extends BaseApiModule {
         return info;
     }
 
-    @ApiMethod("getVersion")
+    @ApiMethod(value = "getVersion", readOnly = true, idempotent = true)
     public String getVersion() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null ? server.getServerVersion() : null;
     }
 
-    @ApiMethod("getBrand")
+    @ApiMethod(value = "getBrand", readOnly = true, idempotent = true)
     public String getBrand() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null ? server.getServerModName() : null;
     }
 
-    @ApiMethod("getMotd")
+    @ApiMethod(value = "getMotd", readOnly = true, idempotent = true)
     public String getMotd() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null ? server.getMotd() : null;
     }
 
-    @ApiMethod("getMaxPlayers")
+    @ApiMethod(value = "getMaxPlayers", readOnly = true, idempotent = true)
     public int getMaxPlayers() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null ? server.getMaxPlayers() : -1;
     }
 
-    @ApiMethod("getOnlinePlayerCount")
+    @ApiMethod(value = "getOnlinePlayerCount", readOnly = true, idempotent = true)
     public int getOnlinePlayerCount() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null ? server.getPlayerCount() : -1;
     }
 
-    @ApiMethod("getOnlinePlayers")
+    @ApiMethod(value = "getOnlinePlayers", readOnly = true, idempotent = true)
     public List<String> getOnlinePlayers() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -77,7 +86,7 @@ public class ServerApiModule extends BaseApiModule {
                 .collect(Collectors.toList());
     }
 
-    @ApiMethod("getOnlinePlayerUUIDs")
+    @ApiMethod(value = "getOnlinePlayerUUIDs", readOnly = true, idempotent = true)
     public List<String> getOnlinePlayerUUIDs() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -87,12 +96,12 @@ public class ServerApiModule extends BaseApiModule {
                 .collect(Collectors.toList());
     }
 
-    @ApiMethod("getTPS")
+    @ApiMethod(value = "getTPS", serverThread = false)
     public double getTPS() {
         return getAverageTPS();
     }
 
-    @ApiMethod("getAverageTPS")
+    @ApiMethod(value = "getAverageTPS", serverThread = false)
     public double getAverageTPS() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return -1.0;
@@ -103,20 +112,20 @@ public class ServerApiModule extends BaseApiModule {
         return Math.round(tps * 100.0) / 100.0;
     }
 
-    @ApiMethod("getTickCount")
+    @ApiMethod(value = "getTickCount", serverThread = false)
     public long getTickCount() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null ? server.getTickCount() : -1;
     }
 
-    @ApiMethod("getUptime")
+    @ApiMethod(value = "getUptime", serverThread = false)
     public long getUptime() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return -1;
         return server.getTickCount() * 50L; // Convert ticks to milliseconds
     }
 
-    @ApiMethod("getMemoryUsage")
+    @ApiMethod(value = "getMemoryUsage", serverThread = false)
     public Map<String, Long> getMemoryUsage() {
         Runtime runtime = Runtime.getRuntime();
         Map<String, Long> memory = new HashMap<>();
@@ -127,7 +136,71 @@ public class ServerApiModule extends BaseApiModule {
         return memory;
     }
 
-    @ApiMethod("getDifficulty")
+    @ApiMethod(value = "getTransport", serverThread = false)
+    public Map<String, Object> getTransport() {
+        NettyTransport active = WebSocketServer.getActiveTransport();
+        Map<String, Object> transport = new HashMap<>();
+        transport.put("active", active != null ? active.getConfigName() : null);
+
+        List<String> available = new ArrayList<>();
+        for (NettyTransport candidate : NettyTransport.values()) {
+            if (candidate.isAvailable()) {
+                available.add(candidate.getConfigName());
+            }
+        }
+        transport.put("available", available);
+        return transport;
+    }
+
+    @ApiMethod(value = "getConnections", serverThread = false)
+    public List<Map<String, Object>> getConnections() {
+        return ConnectionMetrics.snapshotAll();
+    }
+
+    @ApiMethod(value = "setCompression", serverThread = false)
+    public int setCompression(String remoteAddress, boolean enabled) {
+        int matched = 0;
+        for (ConnectionMetrics metrics : ConnectionMetrics.getAll()) {
+            AdaptiveCompressionFilter filter = metrics.getChannel().attr(AdaptiveCompressionFilter.KEY).get();
+            if (filter != null && String.valueOf(metrics.getChannel().remoteAddress()).equals(remoteAddress)) {
+                filter.setEnabled(enabled);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @ApiMethod(value = "getTrafficTap", serverThread = false)
+    public Map<String, Object> getTrafficTap() {
+        return TrafficTap.getInstance().getStats();
+    }
+
+    @ApiMethod(value = "setTrafficTap", serverThread = false)
+    public int setTrafficTap(String remoteAddress, boolean enabled) {
+        return TrafficTap.getInstance().setEnabled(remoteAddress, enabled);
+    }
+
+    @ApiMethod(value = "getAllocatorStats", serverThread = false)
+    public Map<String, Object> getAllocatorStats() {
+        return BufferAllocators.getStats();
+    }
+
+    @ApiMethod(value = "getSchedulerStats", serverThread = false)
+    public Map<String, Object> getSchedulerStats() {
+        return ApiTaskScheduler.getInstance().getStats();
+    }
+
+    @ApiMethod(value = "getSnapshotStats", serverThread = false)
+    public Map<String, Object> getSnapshotStats() {
+        return WorldSnapshotPublisher.getInstance().getStats();
+    }
+
+    @ApiMethod(value = "getCoalescingStats", serverThread = false)
+    public Map<String, Object> getCoalescingStats() {
+        return RequestCoalescer.getInstance().getStats();
+    }
+
+    @ApiMethod(value = "getDifficulty", readOnly = true, idempotent = true)
     public String getDifficulty() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -150,13 +223,13 @@ public class ServerApiModule extends BaseApiModule {
         }
     }
 
-    @ApiMethod("isHardcore")
+    @ApiMethod(value = "isHardcore", readOnly = true, idempotent = true)
     public boolean isHardcore() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null && server.getWorldData().isHardcore();
     }
 
-    @ApiMethod("getDefaultGameMode")
+    @ApiMethod(value = "getDefaultGameMode", readOnly = true, idempotent = true)
     public String getDefaultGameMode() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return null;
@@ -246,7 +319,7 @@ public class ServerApiModule extends BaseApiModule {
         return true;
     }
 
-    @ApiMethod("getWhitelist")
+    @ApiMethod(value = "getWhitelist", readOnly = true, idempotent = true)
     public List<String> getWhitelist() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -255,7 +328,7 @@ public class ServerApiModule extends BaseApiModule {
                 .collect(Collectors.toList());
     }
 
-    @ApiMethod("isWhitelistEnabled")
+    @ApiMethod(value = "isWhitelistEnabled", readOnly = true, idempotent = true)
     public boolean isWhitelistEnabled() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         return server != null && server.getPlayerList().isUsingWhitelist();
@@ -272,7 +345,7 @@ public class ServerApiModule extends BaseApiModule {
         });
     }
 
-    @ApiMethod("getOperators")
+    @ApiMethod(value = "getOperators", readOnly = true, idempotent = true)
     public List<String> getOperators() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -281,7 +354,7 @@ public class ServerApiModule extends BaseApiModule {
                 .collect(Collectors.toList());
     }
 
-    @ApiMethod("getBannedPlayers")
+    @ApiMethod(value = "getBannedPlayers", readOnly = true, idempotent = true)
     public List<String> getBannedPlayers() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
@@ -289,7 +362,7 @@ public class ServerApiModule extends BaseApiModule {
         return Arrays.asList(server.getPlayerList().getBans().getUserList());
     }
 
-    @ApiMethod("getBannedIPs")
+    @ApiMethod(value = "getBannedIPs", readOnly = true, idempotent = true)
     public List<String> getBannedIPs() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server == null) return Collections.emptyList();
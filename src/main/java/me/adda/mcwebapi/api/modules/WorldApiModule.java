@@ -1,10 +1,13 @@
 package me.adda.mcwebapi.api.modules;
 
 import me.adda.mcwebapi.api.BaseApiModule;
+import me.adda.mcwebapi.api.WorldSnapshot;
+import me.adda.mcwebapi.api.WorldSnapshotPublisher;
 import me.adda.mcwebapi.api.annotations.ApiMethod;
 import me.adda.mcwebapi.api.annotations.ApiModule;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkResult;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
@@ -13,6 +16,7 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.storage.ServerLevelData;
 import net.minecraft.world.level.border.WorldBorder;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.Difficulty;
 import net.minecraft.server.level.ServerPlayer;
@@ -25,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @ApiModule("level")
@@ -42,7 +47,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getBlock")
+    @ApiMethod(value = "getBlock", readOnly = true, idempotent = true)
     public String getBlock(String levelId, int x, int y, int z) {
         ServerLevel level = getLevel(levelId);
         if (level != null) {
@@ -52,7 +57,7 @@ public class WorldApiModule extends BaseApiModule {
         return null;
     }
 
-    @ApiMethod("getBlockState")
+    @ApiMethod(value = "getBlockState", readOnly = true, idempotent = true)
     public Map<String, Object> getBlockState(String levelId, int x, int y, int z) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
@@ -66,7 +71,7 @@ public class WorldApiModule extends BaseApiModule {
         return result;
     }
 
-    @ApiMethod("getDayTime")
+    @ApiMethod(value = "getDayTime", readOnly = true, idempotent = true)
     public long getDayTime(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null ? level.getDayTime() : 0;
@@ -82,13 +87,13 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getSeed")
+    @ApiMethod(value = "getSeed", readOnly = true, idempotent = true)
     public long getSeed(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null ? level.getSeed() : 0;
     }
 
-    @ApiMethod("getWeather")
+    @ApiMethod(value = "getWeather", readOnly = true, idempotent = true)
     public Map<String, Object> getWeather(String levelId) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
@@ -111,7 +116,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getWorldBorder")
+    @ApiMethod(value = "getWorldBorder", readOnly = true, idempotent = true)
     public Map<String, Object> getWorldBorder(String levelId) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
@@ -140,7 +145,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getHeight")
+    @ApiMethod(value = "getHeight", readOnly = true, idempotent = true)
     public int getHeight(String levelId, int x, int z, String heightmapType) {
         ServerLevel level = getLevel(levelId);
         if (level != null) {
@@ -150,7 +155,7 @@ public class WorldApiModule extends BaseApiModule {
         return -1;
     }
 
-    @ApiMethod("getSpawnPoint")
+    @ApiMethod(value = "getSpawnPoint", readOnly = true, idempotent = true)
     public Map<String, Object> getSpawnPoint(String levelId) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
@@ -174,7 +179,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getDifficulty")
+    @ApiMethod(value = "getDifficulty", readOnly = true, idempotent = true)
     public String getDifficulty(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null ? level.getDifficulty().name() : null;
@@ -195,7 +200,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getPlayers")
+    @ApiMethod(value = "getPlayers", readOnly = true, idempotent = true)
     public List<String> getPlayers(String levelId) {
         ServerLevel level = getLevel(levelId);
         if (level != null) {
@@ -206,7 +211,7 @@ public class WorldApiModule extends BaseApiModule {
         return List.of();
     }
 
-    @ApiMethod("getEntities")
+    @ApiMethod(value = "getEntities", readOnly = true, idempotent = true)
     public List<String> getEntities(String levelId) {
         ServerLevel level = getLevel(levelId);
         List<String> entities = new ArrayList<>();
@@ -219,26 +224,25 @@ public class WorldApiModule extends BaseApiModule {
         return entities;
     }
 
-    @ApiMethod("getEntityCount")
+    @ApiMethod(value = "getEntityCount", serverThread = false, readOnly = true, snapshot = true)
     public int getEntityCount(String levelId) {
-        ServerLevel level = getLevel(levelId);
-        if (level != null) {
-            int count = 0;
-            for (Entity ignored : level.getAllEntities()) {
-                count++;
-            }
-            return count;
-        }
-        return 0;
+        WorldSnapshot.LevelState level = findSnapshotLevel(levelId);
+        return level != null ? level.entityCount() : 0;
     }
 
-    @ApiMethod("getPlayerCount")
+    @ApiMethod(value = "getPlayerCount", serverThread = false, readOnly = true, snapshot = true)
     public int getPlayerCount(String levelId) {
-        ServerLevel level = getLevel(levelId);
-        return level != null ? level.players().size() : 0;
+        WorldSnapshot.LevelState level = findSnapshotLevel(levelId);
+        return level != null ? level.playerCount() : 0;
     }
 
-    @ApiMethod("getChunkInfo")
+    // Уровень из последнего снимка мира; читается с любого потока
+    private WorldSnapshot.LevelState findSnapshotLevel(String levelId) {
+        WorldSnapshot snapshot = WorldSnapshotPublisher.getInstance().getCurrent();
+        return snapshot != null ? snapshot.getLevel(levelId) : null;
+    }
+
+    @ApiMethod(value = "getChunkInfo", readOnly = true, idempotent = true)
     public Map<String, Object> getChunkInfo(String levelId, int chunkX, int chunkZ) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
@@ -252,12 +256,16 @@ public class WorldApiModule extends BaseApiModule {
     }
 
     @ApiMethod("loadChunk")
-    public boolean loadChunk(String levelId, int chunkX, int chunkZ) {
+    public CompletableFuture<Boolean> loadChunk(String levelId, int chunkX, int chunkZ) {
         ServerLevel level = getLevel(levelId);
-        if (level != null) {
-            return level.getChunkSource().getChunk(chunkX, chunkZ, true) != null;
+        if (level == null) {
+            return CompletableFuture.completedFuture(false);
         }
-        return false;
+
+        // Генерация может занять несколько тиков, ответ уйдёт когда чанк будет готов
+        return level.getChunkSource()
+                .getChunkFuture(chunkX, chunkZ, ChunkStatus.FULL, true)
+                .thenApply(ChunkResult::isSuccess);
     }
 
     @ApiMethod("unloadChunk")
@@ -270,7 +278,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getLightLevel")
+    @ApiMethod(value = "getLightLevel", readOnly = true, idempotent = true)
     public int getLightLevel(String levelId, int x, int y, int z) {
         ServerLevel level = getLevel(levelId);
         if (level != null) {
@@ -279,31 +287,31 @@ public class WorldApiModule extends BaseApiModule {
         return 0;
     }
 
-    @ApiMethod("getMoonPhase")
+    @ApiMethod(value = "getMoonPhase", readOnly = true, idempotent = true)
     public int getMoonPhase(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null ? level.getMoonPhase() : 0;
     }
 
-    @ApiMethod("isDay")
+    @ApiMethod(value = "isDay", readOnly = true, idempotent = true)
     public boolean isDay(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null && level.isDay();
     }
 
-    @ApiMethod("isNight")
+    @ApiMethod(value = "isNight", readOnly = true, idempotent = true)
     public boolean isNight(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null && level.isNight();
     }
 
-    @ApiMethod("getTotalTime")
+    @ApiMethod(value = "getTotalTime", readOnly = true, idempotent = true)
     public long getTotalTime(String levelId) {
         ServerLevel level = getLevel(levelId);
         return level != null ? level.getGameTime() : 0;
     }
 
-    @ApiMethod("getLevelData")
+    @ApiMethod(value = "getLevelData", readOnly = true, idempotent = true)
     public Map<String, Object> getLevelData(String levelId) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
@@ -340,7 +348,7 @@ public class WorldApiModule extends BaseApiModule {
         return false;
     }
 
-    @ApiMethod("getAvailableLevels")
+    @ApiMethod(value = "getAvailableLevels", readOnly = true, idempotent = true)
     public List<String> getAvailableLevels() {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server != null) {
@@ -352,7 +360,7 @@ public class WorldApiModule extends BaseApiModule {
         return List.of();
     }
 
-    @ApiMethod("getLevelInfo")
+    @ApiMethod(value = "getLevelInfo", readOnly = true, idempotent = true)
     public Map<String, Object> getLevelInfo(String levelId) {
         ServerLevel level = getLevel(levelId);
         Map<String, Object> result = new HashMap<>();
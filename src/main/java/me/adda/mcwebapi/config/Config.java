@@ -3,6 +3,8 @@ package me.adda.mcwebapi.config;
 import net.neoforged.neoforge.common.ModConfigSpec;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.List;
+
 public class Config {
     public static final ServerConfig SERVER;
     public static final ModConfigSpec SERVER_SPEC;
@@ -17,9 +19,51 @@ public class Config {
         public final ModConfigSpec.ConfigValue<String> host;
         public final ModConfigSpec.IntValue port;
         public final ModConfigSpec.ConfigValue<String> authKey;
+        public final ModConfigSpec.ConfigValue<List<? extends String>> identities;
         public final ModConfigSpec.BooleanValue enableSSL;
         public final ModConfigSpec.IntValue timeout;
         public final ModConfigSpec.ConfigValue<String> allowedOrigins;
+        public final ModConfigSpec.ConfigValue<String> transport;
+
+        public final ModConfigSpec.IntValue bossThreads;
+        public final ModConfigSpec.IntValue workerThreads;
+        public final ModConfigSpec.IntValue maxWorkerThreads;
+        public final ModConfigSpec.IntValue soBacklog;
+        public final ModConfigSpec.BooleanValue tcpNoDelay;
+        public final ModConfigSpec.IntValue sendBufferSize;
+        public final ModConfigSpec.IntValue receiveBufferSize;
+        public final ModConfigSpec.IntValue writeBufferLowWaterMark;
+        public final ModConfigSpec.IntValue writeBufferHighWaterMark;
+        public final ModConfigSpec.IntValue maxQueuedFrames;
+        public final ModConfigSpec.ConfigValue<String> slowConsumerPolicy;
+        public final ModConfigSpec.IntValue maxInFlightRequests;
+        public final ModConfigSpec.IntValue maxBatchSize;
+        public final ModConfigSpec.IntValue maxAtomicBatchSize;
+        public final ModConfigSpec.IntValue flushConsolidationLimit;
+        public final ModConfigSpec.IntValue maxPackedResponses;
+        public final ModConfigSpec.IntValue maxFramePayloadLength;
+        public final ModConfigSpec.IntValue streamChunkSize;
+        public final ModConfigSpec.ConfigValue<String> allocator;
+        public final ModConfigSpec.BooleanValue preferDirectBuffers;
+        public final ModConfigSpec.IntValue heapArenas;
+        public final ModConfigSpec.IntValue directArenas;
+        public final ModConfigSpec.ConfigValue<String> leakDetectionLevel;
+
+        public final ModConfigSpec.BooleanValue compressionEnabled;
+        public final ModConfigSpec.IntValue compressionLevel;
+        public final ModConfigSpec.IntValue compressionMinSize;
+
+        public final ModConfigSpec.DoubleValue tickBudgetMillis;
+        public final ModConfigSpec.BooleanValue experimentalVirtualThreads;
+        public final ModConfigSpec.IntValue defaultClientWeight;
+        public final ModConfigSpec.ConfigValue<List<? extends String>> clientWeights;
+
+        public final ModConfigSpec.IntValue snapshotIntervalTicks;
+
+        public final ModConfigSpec.BooleanValue trafficTapEnabled;
+        public final ModConfigSpec.DoubleValue trafficTapSampleRate;
+        public final ModConfigSpec.IntValue trafficTapMaxBytes;
+        public final ModConfigSpec.IntValue trafficTapQueueSize;
 
         public ServerConfig(ModConfigSpec.Builder builder) {
             builder.push("websocket");
@@ -36,19 +80,193 @@ public class Config {
                     .comment("Authentication key for binary protocol")
                     .define("authKey", "default-secret-key-change-me");
 
+            this.identities = builder
+                    .comment("Additional keys as \"name=key\"; clients authenticating with authKey get the identity \"default\".",
+                            "With enableSSL a client must connect with ?identity=name so frames before authentication use that identity's key")
+                    .defineListAllowEmpty("identities", List.of(), () -> "", Config::isKeyValue);
+
             this.enableSSL = builder
                     .comment("Enable TLS/SSL encryption")
                     .define("enableSSL", false);
 
             this.timeout = builder
-                    .comment("Request timeout in seconds")
+                    .comment("Request timeout in seconds, clients may set a shorter or longer one per message with timeoutMs")
                     .defineInRange("timeout", 30, 1, 300);
 
             this.allowedOrigins = builder
                     .comment("Allowed origins for CORS")
                     .define("allowedOrigins", "*");
 
+            this.transport = builder
+                    .comment("Netty transport: auto, io_uring, epoll or nio. Unavailable native transports fall back to nio")
+                    .define("transport", "auto");
+
+            builder.pop();
+
+            builder.push("netty");
+
+            this.bossThreads = builder
+                    .comment("Number of threads accepting connections")
+                    .defineInRange("bossThreads", 1, 1, 4);
+
+            this.workerThreads = builder
+                    .comment("Number of I/O worker threads, 0 = available cores minus one (kept for the main thread)")
+                    .defineInRange("workerThreads", 0, 0, 64);
+
+            this.maxWorkerThreads = builder
+                    .comment("Upper bound for I/O worker threads, applied to both explicit and automatic sizing")
+                    .defineInRange("maxWorkerThreads", 4, 1, 64);
+
+            this.soBacklog = builder
+                    .comment("Pending connection queue length (SO_BACKLOG)")
+                    .defineInRange("soBacklog", 128, 1, 65535);
+
+            this.tcpNoDelay = builder
+                    .comment("Disable Nagle's algorithm on client sockets (TCP_NODELAY)")
+                    .define("tcpNoDelay", true);
+
+            this.sendBufferSize = builder
+                    .comment("Socket send buffer size in bytes (SO_SNDBUF), 0 = OS default")
+                    .defineInRange("sendBufferSize", 0, 0, 16 * 1024 * 1024);
+
+            this.receiveBufferSize = builder
+                    .comment("Socket receive buffer size in bytes (SO_RCVBUF), 0 = OS default")
+                    .defineInRange("receiveBufferSize", 0, 0, 16 * 1024 * 1024);
+
+            this.writeBufferLowWaterMark = builder
+                    .comment("Outbound buffer size in bytes below which a channel becomes writable again")
+                    .defineInRange("writeBufferLowWaterMark", 32 * 1024, 1024, 64 * 1024 * 1024);
+
+            this.writeBufferHighWaterMark = builder
+                    .comment("Outbound buffer size in bytes above which a channel stops being writable")
+                    .defineInRange("writeBufferHighWaterMark", 64 * 1024, 1024, 64 * 1024 * 1024);
+
+            this.maxQueuedFrames = builder
+                    .comment("Frames held per connection while the client is not reading before slowConsumerPolicy applies")
+                    .defineInRange("maxQueuedFrames", 256, 1, 65536);
+
+            this.slowConsumerPolicy = builder
+                    .comment("What to do with a client that does not keep up: pause_reading, drop_oldest or disconnect")
+                    .define("slowConsumerPolicy", "pause_reading");
+
+            this.maxInFlightRequests = builder
+                    .comment("Requests a connection may have in progress at once; reading pauses at the limit")
+                    .defineInRange("maxInFlightRequests", 64, 1, 65536);
+
+            this.maxBatchSize = builder
+                    .comment("Calls allowed in a single BATCH message")
+                    .defineInRange("maxBatchSize", 1000, 1, 65536);
+
+            this.maxAtomicBatchSize = builder
+                    .comment("Calls allowed in an atomic BATCH; it runs as one server-thread task, so it can overrun the tick budget")
+                    .defineInRange("maxAtomicBatchSize", 64, 1, 65536);
+
+            this.flushConsolidationLimit = builder
+                    .comment("Flushes merged into one syscall while a read is in progress")
+                    .defineInRange("flushConsolidationLimit", 256, 1, 65536);
+
+            this.maxPackedResponses = builder
+                    .comment("Maximum responses packed into one frame for clients connected with ?pack=true")
+                    .defineInRange("maxPackedResponses", 64, 1, 4096);
+
+            this.maxFramePayloadLength = builder
+                    .comment("Maximum size in bytes of an incoming request frame")
+                    .defineInRange("maxFramePayloadLength", 65536, 1024, 16 * 1024 * 1024);
+
+            this.streamChunkSize = builder
+                    .comment("Responses larger than this many bytes are streamed as fragmented frames of this size")
+                    .defineInRange("streamChunkSize", 65536, 1024, 16 * 1024 * 1024);
+
+            this.allocator = builder
+                    .comment("ByteBuf allocator for API connections: pooled or unpooled")
+                    .define("allocator", "pooled");
+
+            this.preferDirectBuffers = builder
+                    .comment("Allocate off-heap (direct) buffers for I/O")
+                    .define("preferDirectBuffers", true);
+
+            this.heapArenas = builder
+                    .comment("Heap arenas of the pooled allocator, -1 = Netty default")
+                    .defineInRange("heapArenas", -1, -1, 256);
+
+            this.directArenas = builder
+                    .comment("Direct arenas of the pooled allocator, -1 = Netty default")
+                    .defineInRange("directArenas", -1, -1, 256);
+
+            this.leakDetectionLevel = builder
+                    .comment("Netty leak detection level: default (leave unchanged), disabled, simple, advanced or paranoid. Applies JVM-wide")
+                    .define("leakDetectionLevel", "default");
+
+            builder.pop();
+
+            builder.push("compression");
+
+            this.compressionEnabled = builder
+                    .comment("Offer permessage-deflate to clients")
+                    .define("enabled", true);
+
+            this.compressionLevel = builder
+                    .comment("Deflate level, 1 = fastest, 9 = smallest")
+                    .defineInRange("level", 6, 1, 9);
+
+            this.compressionMinSize = builder
+                    .comment("Frames smaller than this many bytes are sent uncompressed")
+                    .defineInRange("minSize", 512, 0, 16 * 1024 * 1024);
+
+            builder.pop();
+
+            builder.push("scheduler");
+
+            this.tickBudgetMillis = builder
+                    .comment("Milliseconds of each server tick spent on queued API calls; the rest waits for the next tick")
+                    .defineInRange("tickBudgetMillis", 10.0, 0.1, 50.0);
+
+            this.experimentalVirtualThreads = builder
+                    .comment("EXPERIMENTAL, unsupported: run each request on its own virtual thread instead of the Netty event loop.",
+                            "Not benchmarked against event loop dispatch; it can only help when API methods block")
+                    .define("experimentalVirtualThreads", false);
+
+            this.defaultClientWeight = builder
+                    .comment("Server-thread tasks run per scheduling round for a connection whose identity has no weight below")
+                    .defineInRange("defaultClientWeight", 1, 1, 1000);
+
+            this.clientWeights = builder
+                    .comment("Scheduling weights per identity as \"name=weight\", e.g. \"dashboard=4\"")
+                    .defineListAllowEmpty("clientWeights", List.of(), () -> "", Config::isKeyValue);
+
+            builder.pop();
+
+            builder.push("snapshot");
+
+            this.snapshotIntervalTicks = builder
+                    .comment("Ticks between world snapshots served to read-only calls; higher values cost less but return older data")
+                    .defineInRange("intervalTicks", 1, 1, 200);
+
+            builder.pop();
+
+            builder.push("trafficTap");
+
+            this.trafficTapEnabled = builder
+                    .comment("Log WebSocket frames of all connections to the mcwebapi.traffic logger")
+                    .define("enabled", false);
+
+            this.trafficTapSampleRate = builder
+                    .comment("Fraction of frames logged while the tap is active")
+                    .defineInRange("sampleRate", 1.0, 0.0, 1.0);
+
+            this.trafficTapMaxBytes = builder
+                    .comment("Maximum payload bytes logged per frame")
+                    .defineInRange("maxBytes", 1024, 0, 1024 * 1024);
+
+            this.trafficTapQueueSize = builder
+                    .comment("Records buffered for the background writer before new ones are dropped")
+                    .defineInRange("queueSize", 4096, 16, 1024 * 1024);
+
             builder.pop();
         }
     }
-}
\ No newline at end of file
+
+    private static boolean isKeyValue(Object value) {
+        return value instanceof String entry && entry.indexOf('=') > 0;
+    }
+}
@@ -0,0 +1,84 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilter;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.util.AttributeKey;
+
+/**
+ * Decides per outbound frame whether permessage-deflate is worth it. Frames below the size
+ * threshold, frames on encrypted connections and payloads that already carry a gzip/zlib/zstd
+ * header are sent as-is, and compression can be switched off for a single connection.
+ */
+public class AdaptiveCompressionFilter implements WebSocketExtensionFilter, WebSocketExtensionFilterProvider {
+    public static final AttributeKey<AdaptiveCompressionFilter> KEY = AttributeKey.valueOf("mcwebapi.compressionFilter");
+
+    private final Channel channel;
+    private final ConnectionMetrics metrics;
+    private final int minSize;
+    private volatile boolean enabled = true;
+
+    public AdaptiveCompressionFilter(Channel channel, ConnectionMetrics metrics, int minSize) {
+        this.channel = channel;
+        this.metrics = metrics;
+        this.minSize = minSize;
+        channel.attr(KEY).set(this);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean mustSkip(WebSocketFrame frame) {
+        // Продолжение сообщения обязано идти тем же путём, что и первый фрагмент
+        if (frame instanceof ContinuationWebSocketFrame) {
+            return false;
+        }
+
+        ByteBuf content = frame.content();
+        boolean skip = !enabled
+                || content.readableBytes() < minSize
+                // attr().get() создаёт атрибут и на открытых соединениях, поэтому важен сам шифр
+                || channel.attr(SessionCipher.KEY).get() != null
+                || isAlreadyCompressed(content);
+        if (skip) {
+            metrics.uncompressedFrames++;
+        }
+        return skip;
+    }
+
+    private static boolean isAlreadyCompressed(ByteBuf content) {
+        if (content.readableBytes() < 4) {
+            return false;
+        }
+        int index = content.readerIndex();
+        int b0 = content.getUnsignedByte(index);
+        int b1 = content.getUnsignedByte(index + 1);
+
+        if (b0 == 0x1f && b1 == 0x8b) {
+            return true; // gzip
+        }
+        if (b0 == 0x78 && (b1 == 0x01 || b1 == 0x5e || b1 == 0x9c || b1 == 0xda)) {
+            return true; // zlib
+        }
+        return content.getInt(index) == 0x28b52ffd; // zstd
+    }
+
+    @Override
+    public WebSocketExtensionFilter encoderFilter() {
+        return this;
+    }
+
+    @Override
+    public WebSocketExtensionFilter decoderFilter() {
+        return WebSocketExtensionFilter.NEVER_SKIP;
+    }
+}
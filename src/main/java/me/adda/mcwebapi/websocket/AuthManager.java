@@ -11,9 +11,11 @@ import java.util.concurrent.ConcurrentHashMap;
 public class AuthManager {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final AuthManager INSTANCE = new AuthManager();
+    public static final String DEFAULT_IDENTITY = "default";
 
     private final Map<Channel, Boolean> authenticatedChannels = new ConcurrentHashMap<>();
     private final Map<Channel, Long> channelTimeouts = new ConcurrentHashMap<>();
+    private final Map<Channel, String> channelIdentities = new ConcurrentHashMap<>();
     private static final long TIMEOUT_MS = 30 * 60 * 1000; // 30 минут
 
     public static AuthManager getInstance() {
@@ -25,12 +27,13 @@ public class AuthManager {
     }
 
     public boolean authenticate(Channel channel, String authKey) {
-        String configKey = Config.SERVER.authKey.get();
+        String identity = findIdentity(authKey);
 
-        if (configKey.equals(authKey)) {
+        if (identity != null) {
             authenticatedChannels.put(channel, true);
             channelTimeouts.put(channel, System.currentTimeMillis() + TIMEOUT_MS);
-            LOGGER.info("Channel authenticated: {}", channel.remoteAddress());
+            channelIdentities.put(channel, identity);
+            LOGGER.info("Channel authenticated as {}: {}", identity, channel.remoteAddress());
             return true;
         } else {
             LOGGER.warn("Authentication failed for channel: {}", channel.remoteAddress());
@@ -59,9 +62,66 @@ public class AuthManager {
         return true;
     }
 
+    /**
+     * Identity the channel authenticated as, or null before authentication.
+     */
+    public String getIdentity(Channel channel) {
+        return channelIdentities.get(channel);
+    }
+
+    /**
+     * Scheduling weight of an identity from {@code clientWeights}, {@code defaultClientWeight} if unlisted.
+     */
+    public int getWeight(String identity) {
+        for (String entry : Config.SERVER.clientWeights.get()) {
+            int separator = entry.indexOf('=');
+            if (entry.substring(0, separator).trim().equals(identity)) {
+                try {
+                    return Math.max(1, Integer.parseInt(entry.substring(separator + 1).trim()));
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Invalid client weight: {}", entry);
+                }
+            }
+        }
+        return Config.SERVER.defaultClientWeight.get();
+    }
+
+    /**
+     * Key of an identity, {@code authKey} for {@link #DEFAULT_IDENTITY}, or null if unknown.
+     */
+    public String getKey(String identity) {
+        if (DEFAULT_IDENTITY.equals(identity)) {
+            return Config.SERVER.authKey.get();
+        }
+        for (String entry : Config.SERVER.identities.get()) {
+            int separator = entry.indexOf('=');
+            if (entry.substring(0, separator).trim().equals(identity)) {
+                return entry.substring(separator + 1);
+            }
+        }
+        return null;
+    }
+
+    private String findIdentity(String authKey) {
+        if (authKey == null || authKey.isEmpty()) {
+            return null;
+        }
+        if (Config.SERVER.authKey.get().equals(authKey)) {
+            return DEFAULT_IDENTITY;
+        }
+        for (String entry : Config.SERVER.identities.get()) {
+            int separator = entry.indexOf('=');
+            if (entry.substring(separator + 1).equals(authKey)) {
+                return entry.substring(0, separator).trim();
+            }
+        }
+        return null;
+    }
+
     public void removeChannel(Channel channel) {
         authenticatedChannels.remove(channel);
         channelTimeouts.remove(channel);
+        channelIdentities.remove(channel);
         LOGGER.debug("Channel removed from auth: {}", channel.remoteAddress());
     }
 
@@ -1,41 +1,36 @@
 package me.adda.mcwebapi.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import me.adda.mcwebapi.api.Message;
-import me.adda.mcwebapi.config.Config;
+import me.adda.mcwebapi.websocket.codec.MessageCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.crypto.Cipher;
-import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.security.Key;
 
+/**
+ * Frame payload encoding. A {@code null} {@link SessionCipher} means the connection is not encrypted.
+ */
 public class BinaryCodec {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final ObjectMapper mapper = new ObjectMapper();
-    private static final String ALGORITHM = "AES";
-    private static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
 
-    // Для простоты используем фиксированный ключ из конфига
-    // В продакшене нужно генерировать случайный ключ при первом запуске
-    private static Key getEncryptionKey() {
-        String authKey = Config.SERVER.authKey.get();
-        // Дополняем или обрезаем ключ до 16 байт для AES
-        byte[] keyBytes = new byte[16];
-        byte[] authBytes = authKey.getBytes();
-        System.arraycopy(authBytes, 0, keyBytes, 0, Math.min(authBytes.length, 16));
-        return new SecretKeySpec(keyBytes, ALGORITHM);
-    }
-
-    public static String encode(Message message) {
+    public static String encode(Message message, SessionCipher cipher) {
         try {
-            String json = mapper.writeValueAsString(message);
+            byte[] json = mapper.writeValueAsBytes(message);
 
-            if (Config.SERVER.enableSSL.get()) {
-                return encrypt(json);
+            if (cipher != null) {
+                return Base64.getEncoder().encodeToString(cipher.encrypt(json));
             } else {
-                return Base64.getEncoder().encodeToString(json.getBytes());
+                return Base64.getEncoder().encodeToString(json);
             }
         } catch (Exception e) {
             LOGGER.error("Error encoding message", e);
@@ -43,42 +38,84 @@ public class BinaryCodec {
         }
     }
 
-    public static Message decode(String data) {
+    public static Message decode(String data, SessionCipher cipher) {
         try {
-            String json;
+            byte[] decodedBytes = Base64.getDecoder().decode(data);
 
-            if (Config.SERVER.enableSSL.get()) {
-                json = decrypt(data);
-            } else {
-                byte[] decodedBytes = Base64.getDecoder().decode(data);
-                json = new String(decodedBytes);
+            if (cipher != null) {
+                return mapper.readValue(cipher.decrypt(decodedBytes), Message.class);
             }
 
-            return mapper.readValue(json, Message.class);
+            return mapper.readValue(new String(decodedBytes, StandardCharsets.UTF_8), Message.class);
         } catch (Exception e) {
             LOGGER.error("Error decoding message", e);
             throw new RuntimeException("Decoding failed", e);
         }
     }
 
-    private static String encrypt(String data) throws Exception {
-        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-        cipher.init(Cipher.ENCRYPT_MODE, getEncryptionKey());
-        byte[] encryptedBytes = cipher.doFinal(data.getBytes());
-        return Base64.getEncoder().encodeToString(encryptedBytes);
+    /**
+     * Encodes a message for a binary frame: raw codec bytes (sealed in place when the connection
+     * is encrypted) written straight into a buffer from the channel allocator, without Base64 or String copies.
+     */
+    public static ByteBuf encode(Message message, ByteBufAllocator allocator, MessageCodec codec, SessionCipher cipher) {
+        ByteBuf buffer = allocator.ioBuffer();
+        try {
+            codec.write(message, new ByteBufOutputStream(buffer));
+
+            if (cipher != null) {
+                try {
+                    return cipher.encrypt(buffer, allocator);
+                } finally {
+                    buffer.release();
+                }
+            }
+            return buffer;
+        } catch (Exception e) {
+            if (buffer.refCnt() > 0) {
+                buffer.release();
+            }
+            LOGGER.error("Error encoding binary message", e);
+            throw new RuntimeException("Encoding failed", e);
+        }
     }
 
-    private static String decrypt(String data) throws Exception {
-        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-        cipher.init(Cipher.DECRYPT_MODE, getEncryptionKey());
-        byte[] decodedBytes = Base64.getDecoder().decode(data);
-        byte[] decryptedBytes = cipher.doFinal(decodedBytes);
-        return new String(decryptedBytes);
+    /**
+     * Streams an unencrypted message into {@code out}: codec bytes for binary frames, Base64 JSON
+     * for text frames. Closes {@code out} when done.
+     */
+    public static void encode(Message message, OutputStream out, MessageCodec codec, boolean binary) throws IOException {
+        if (binary) {
+            codec.write(message, out);
+        } else {
+            mapper.writeValue(Base64.getEncoder().wrap(out), message);
+        }
+        out.close();
+    }
+
+    /**
+     * Decodes a binary frame payload. The buffer is read but not released.
+     */
+    public static Message decode(ByteBuf data, ByteBufAllocator allocator, MessageCodec codec, SessionCipher cipher) {
+        try {
+            if (cipher != null) {
+                ByteBuf decrypted = cipher.decrypt(data, allocator);
+                try {
+                    return codec.read(new ByteBufInputStream(decrypted));
+                } finally {
+                    decrypted.release();
+                }
+            }
+
+            return codec.read(new ByteBufInputStream(data));
+        } catch (Exception e) {
+            LOGGER.error("Error decoding binary message", e);
+            throw new RuntimeException("Decoding failed", e);
+        }
     }
 
     public static boolean isEncryptionAvailable() {
         try {
-            Cipher.getInstance(TRANSFORMATION);
+            Cipher.getInstance(SessionCipher.TRANSFORMATION);
             return true;
         } catch (Exception e) {
             LOGGER.warn("Encryption not available: {}", e.getMessage());
@@ -0,0 +1,152 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocatorMetric;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.internal.PlatformDependent;
+import me.adda.mcwebapi.config.Config;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the ByteBuf allocator used by API channels and reports its memory usage.
+ */
+public final class BufferAllocators {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final AtomicLong LEAKS_REPORTED = new AtomicLong();
+
+    private static volatile ByteBufAllocator current;
+    private static boolean leakMonitorInstalled;
+
+    private BufferAllocators() {
+    }
+
+    public static ByteBufAllocator create() {
+        boolean preferDirect = Config.SERVER.preferDirectBuffers.get();
+        ByteBufAllocator allocator;
+
+        if ("unpooled".equalsIgnoreCase(Config.SERVER.allocator.get())) {
+            allocator = new UnpooledByteBufAllocator(preferDirect);
+        } else {
+            int heapArenas = Config.SERVER.heapArenas.get();
+            int directArenas = Config.SERVER.directArenas.get();
+            allocator = new PooledByteBufAllocator(
+                    preferDirect,
+                    heapArenas >= 0 ? heapArenas : PooledByteBufAllocator.defaultNumHeapArena(),
+                    directArenas >= 0 ? directArenas : PooledByteBufAllocator.defaultNumDirectArena(),
+                    PooledByteBufAllocator.defaultPageSize(),
+                    PooledByteBufAllocator.defaultMaxOrder(),
+                    PooledByteBufAllocator.defaultSmallCacheSize(),
+                    PooledByteBufAllocator.defaultNormalCacheSize(),
+                    PooledByteBufAllocator.defaultUseCacheForAllThreads()
+            );
+        }
+
+        String leakLevel = Config.SERVER.leakDetectionLevel.get();
+        if (!"default".equalsIgnoreCase(leakLevel)) {
+            ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.parseLevel(leakLevel));
+        }
+        installLeakMonitor();
+
+        current = allocator;
+        return allocator;
+    }
+
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        ByteBufAllocator allocator = current;
+
+        stats.put("type", allocator == null ? null : allocator.getClass().getSimpleName());
+        stats.put("leakDetectionLevel", ResourceLeakDetector.getLevel().name());
+        stats.put("leaksReported", LEAKS_REPORTED.get());
+        stats.put("maxDirectMemory", PlatformDependent.maxDirectMemory());
+        stats.put("jvmUsedDirectMemory", PlatformDependent.usedDirectMemory());
+
+        if (allocator instanceof ByteBufAllocatorMetricProvider provider) {
+            ByteBufAllocatorMetric metric = provider.metric();
+            stats.put("usedDirectMemory", metric.usedDirectMemory());
+            stats.put("usedHeapMemory", metric.usedHeapMemory());
+        }
+
+        if (allocator instanceof PooledByteBufAllocator pooled) {
+            PooledByteBufAllocatorMetric metric = pooled.metric();
+            stats.put("chunkSize", metric.chunkSize());
+            stats.put("threadLocalCaches", metric.numThreadLocalCaches());
+            stats.put("pinnedDirectMemory", pooled.pinnedDirectMemory());
+            stats.put("pinnedHeapMemory", pooled.pinnedHeapMemory());
+            stats.put("directArenas", describeArenas(metric.directArenas()));
+            stats.put("heapArenas", describeArenas(metric.heapArenas()));
+        }
+
+        return stats;
+    }
+
+    private static List<Map<String, Object>> describeArenas(List<PoolArenaMetric> arenas) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (PoolArenaMetric arena : arenas) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("threadCaches", arena.numThreadCaches());
+            info.put("activeAllocations", arena.numActiveAllocations());
+            info.put("activeBytes", arena.numActiveBytes());
+            info.put("allocations", arena.numAllocations());
+            info.put("deallocations", arena.numDeallocations());
+            result.add(info);
+        }
+        return result;
+    }
+
+    /**
+     * Counts leak reports by filtering Netty's leak detector logger. Netty creates its detectors
+     * when buffer classes are first loaded (long before mods), so hooking the log output is the
+     * only way to see every report regardless of load order.
+     */
+    private static synchronized void installLeakMonitor() {
+        if (leakMonitorInstalled) {
+            return;
+        }
+
+        try {
+            LoggerContext context = (LoggerContext) LogManager.getContext(false);
+            Configuration configuration = context.getConfiguration();
+            String name = ResourceLeakDetector.class.getName();
+
+            LoggerConfig loggerConfig = configuration.getLoggerConfig(name);
+            if (!loggerConfig.getName().equals(name)) {
+                loggerConfig = new LoggerConfig(name, null, true);
+                configuration.addLogger(name, loggerConfig);
+            }
+
+            loggerConfig.addFilter(new AbstractFilter() {
+                @Override
+                public Result filter(LogEvent event) {
+                    if (event.getLevel().isMoreSpecificThan(Level.ERROR)
+                            && event.getMessage().getFormattedMessage().startsWith("LEAK:")) {
+                        LEAKS_REPORTED.incrementAndGet();
+                    }
+                    return Result.NEUTRAL;
+                }
+            });
+            context.updateLoggers();
+            leakMonitorInstalled = true;
+        } catch (ClassCastException e) {
+            LOGGER.warn("Log4j core is not active, buffer leak reports will not be counted");
+        }
+    }
+}
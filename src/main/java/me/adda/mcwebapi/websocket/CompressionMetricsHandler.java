@@ -0,0 +1,78 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtension;
+
+/**
+ * Measures permessage-deflate. A pair of handlers sits on both sides of the compression
+ * extension: the raw side sees frames before deflate and times the write through the encoder,
+ * the wire side sees what the encoder produced. Both run synchronously inside the same write
+ * call on the event loop, so they can share state without synchronization.
+ */
+public class CompressionMetricsHandler extends ChannelOutboundHandlerAdapter {
+    private final ConnectionMetrics metrics;
+    private final CompressionMetricsHandler wire;
+
+    private boolean frameCompressed;
+    private boolean inCompressedMessage;
+
+    private CompressionMetricsHandler(ConnectionMetrics metrics, CompressionMetricsHandler wire) {
+        this.metrics = metrics;
+        this.wire = wire;
+    }
+
+    /**
+     * Handler to place between the WebSocket frame encoder and the compression extension.
+     */
+    public static CompressionMetricsHandler wire(ConnectionMetrics metrics) {
+        return new CompressionMetricsHandler(metrics, null);
+    }
+
+    /**
+     * Handler to place after the compression extension, paired with its {@code wire} handler.
+     */
+    public static CompressionMetricsHandler raw(CompressionMetricsHandler wire) {
+        return new CompressionMetricsHandler(wire.metrics, wire);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (!(msg instanceof WebSocketFrame frame)) {
+            ctx.write(msg, promise);
+            return;
+        }
+
+        if (wire == null) {
+            recordWire(frame);
+            ctx.write(msg, promise);
+            return;
+        }
+
+        int rawBytes = frame.content().readableBytes();
+        long start = System.nanoTime();
+        ctx.write(msg, promise);
+
+        if (wire.frameCompressed) {
+            wire.frameCompressed = false;
+            metrics.compressionNanos += System.nanoTime() - start;
+            metrics.bytesBeforeCompression += rawBytes;
+        }
+    }
+
+    private void recordWire(WebSocketFrame frame) {
+        boolean compressed = (frame.rsv() & WebSocketExtension.RSV1) != 0
+                || (frame instanceof ContinuationWebSocketFrame && inCompressedMessage);
+        if (!compressed) {
+            return;
+        }
+
+        inCompressedMessage = !frame.isFinalFragment();
+        frameCompressed = true;
+        metrics.compressedFrames++;
+        metrics.bytesAfterCompression += frame.content().readableBytes();
+    }
+}
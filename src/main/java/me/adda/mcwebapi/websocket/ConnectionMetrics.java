@@ -0,0 +1,101 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-connection counters. Updated only from the channel's event loop, read from anywhere.
+ */
+public class ConnectionMetrics {
+    public static final AttributeKey<ConnectionMetrics> KEY = AttributeKey.valueOf("mcwebapi.connectionMetrics");
+
+    private static final Map<Channel, ConnectionMetrics> ALL_CONNECTIONS = new ConcurrentHashMap<>();
+
+    private final Channel channel;
+    private final long connectedAt = System.currentTimeMillis();
+
+    volatile long framesWritten;
+    volatile long bytesWritten;
+    volatile int queuedFrames;
+    volatile int peakQueuedFrames;
+    volatile long droppedFrames;
+    volatile long readPauses;
+    volatile long unwritableEvents;
+    volatile long inFlightPauses;
+    volatile int inFlightRequests;
+
+    volatile long compressedFrames;
+    volatile long uncompressedFrames;
+    volatile long bytesBeforeCompression;
+    volatile long bytesAfterCompression;
+    volatile long compressionNanos;
+
+    private ConnectionMetrics(Channel channel) {
+        this.channel = channel;
+    }
+
+    public static ConnectionMetrics register(Channel channel) {
+        ConnectionMetrics metrics = new ConnectionMetrics(channel);
+        channel.attr(KEY).set(metrics);
+        ALL_CONNECTIONS.put(channel, metrics);
+        channel.closeFuture().addListener(future -> ALL_CONNECTIONS.remove(channel));
+        return metrics;
+    }
+
+    public static ConnectionMetrics get(Channel channel) {
+        return channel.attr(KEY).get();
+    }
+
+    public static Collection<ConnectionMetrics> getAll() {
+        return ALL_CONNECTIONS.values();
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("remoteAddress", String.valueOf(channel.remoteAddress()));
+        stats.put("authenticated", AuthManager.getInstance().isAuthenticated(channel));
+        stats.put("connectedAt", connectedAt);
+        stats.put("writable", channel.isWritable());
+        stats.put("autoRead", channel.config().isAutoRead());
+        stats.put("framesWritten", framesWritten);
+        stats.put("bytesWritten", bytesWritten);
+        stats.put("queuedFrames", queuedFrames);
+        stats.put("peakQueuedFrames", peakQueuedFrames);
+        stats.put("droppedFrames", droppedFrames);
+        stats.put("readPauses", readPauses);
+        stats.put("unwritableEvents", unwritableEvents);
+        stats.put("inFlightRequests", inFlightRequests);
+        stats.put("inFlightPauses", inFlightPauses);
+
+        Map<String, Object> compression = new HashMap<>();
+        AdaptiveCompressionFilter filter = channel.attr(AdaptiveCompressionFilter.KEY).get();
+        compression.put("enabled", filter != null && filter.isEnabled());
+        compression.put("compressedFrames", compressedFrames);
+        compression.put("uncompressedFrames", uncompressedFrames);
+        compression.put("bytesIn", bytesBeforeCompression);
+        compression.put("bytesOut", bytesAfterCompression);
+        compression.put("ratio", bytesBeforeCompression > 0 ? (double) bytesAfterCompression / bytesBeforeCompression : 1.0);
+        compression.put("cpuMicros", compressionNanos / 1000);
+        stats.put("compression", compression);
+        return stats;
+    }
+
+    public static List<Map<String, Object>> snapshotAll() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ConnectionMetrics metrics : ALL_CONNECTIONS.values()) {
+            result.add(metrics.toMap());
+        }
+        return result;
+    }
+}
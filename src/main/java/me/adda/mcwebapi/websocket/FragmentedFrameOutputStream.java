@@ -0,0 +1,102 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+
+import java.io.OutputStream;
+
+/**
+ * Serializes one WebSocket message incrementally. Bytes are collected in a buffer of at most
+ * {@code chunkSize}; every time it fills up a non-final fragment is written to the channel,
+ * and {@link #close()} writes the final one. A message that fits in a single chunk goes out as
+ * one ordinary frame, so small responses are unaffected.
+ *
+ * <p>Frames are only written, not flushed. Must be used on the channel's event loop.
+ */
+public class FragmentedFrameOutputStream extends OutputStream {
+    private final ChannelHandlerContext ctx;
+    private final boolean binary;
+    private final int chunkSize;
+
+    private ByteBuf current;
+    private int fragments;
+    private boolean closed;
+
+    public FragmentedFrameOutputStream(ChannelHandlerContext ctx, boolean binary, int chunkSize) {
+        this.ctx = ctx;
+        this.binary = binary;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureBuffer();
+        current.writeByte(b);
+        if (current.readableBytes() >= chunkSize) {
+            emit(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            ensureBuffer();
+            int n = Math.min(len, chunkSize - current.readableBytes());
+            current.writeBytes(b, off, n);
+            off += n;
+            len -= n;
+            if (current.readableBytes() >= chunkSize) {
+                emit(false);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ensureBuffer();
+        emit(true);
+    }
+
+    /**
+     * Releases buffered bytes after a serialization failure.
+     *
+     * @return {@code true} if fragments were already written and the connection can no longer
+     * carry a well-formed message
+     */
+    public boolean abort() {
+        closed = true;
+        if (current != null) {
+            current.release();
+            current = null;
+        }
+        return fragments > 0;
+    }
+
+    private void ensureBuffer() {
+        if (current == null) {
+            current = ctx.alloc().ioBuffer(Math.min(chunkSize, 4096), chunkSize);
+        }
+    }
+
+    private void emit(boolean finalFragment) {
+        WebSocketFrame frame;
+        if (fragments == 0) {
+            frame = binary
+                    ? new BinaryWebSocketFrame(finalFragment, 0, current)
+                    : new TextWebSocketFrame(finalFragment, 0, current);
+        } else {
+            frame = new ContinuationWebSocketFrame(finalFragment, 0, current);
+        }
+        current = null;
+        fragments++;
+        ctx.write(frame);
+    }
+}
@@ -0,0 +1,128 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+
+/**
+ * Socket transports the API server can run on. Epoll ships with the Netty build bundled by
+ * Minecraft; io_uring lives in the optional netty-incubator artifact and is therefore only
+ * touched through reflection.
+ */
+public enum NettyTransport {
+    IO_URING("io_uring") {
+        private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+        @Override
+        public boolean isAvailable() {
+            try {
+                Class<?> ioUring = Class.forName(PACKAGE + "IOUring");
+                return (Boolean) ioUring.getMethod("isAvailable").invoke(null);
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return false;
+            }
+        }
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            try {
+                return (EventLoopGroup) Class.forName(PACKAGE + "IOUringEventLoopGroup")
+                        .getConstructor(int.class)
+                        .newInstance(threads);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("io_uring transport is not available", e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Class<? extends ServerChannel> getServerChannelClass() {
+            try {
+                return (Class<? extends ServerChannel>) Class.forName(PACKAGE + "IOUringServerSocketChannel");
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("io_uring transport is not available", e);
+            }
+        }
+    },
+    EPOLL("epoll") {
+        @Override
+        public boolean isAvailable() {
+            try {
+                return Epoll.isAvailable();
+            } catch (LinkageError e) {
+                return false;
+            }
+        }
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass() {
+            return EpollServerSocketChannel.class;
+        }
+    },
+    NIO("nio") {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelClass() {
+            return NioServerSocketChannel.class;
+        }
+    };
+
+    private final String configName;
+
+    NettyTransport(String configName) {
+        this.configName = configName;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public abstract boolean isAvailable();
+
+    /**
+     * @param threads number of event loops, 0 lets Netty pick its default
+     */
+    public abstract EventLoopGroup newEventLoopGroup(int threads);
+
+    public abstract Class<? extends ServerChannel> getServerChannelClass();
+
+    /**
+     * Resolves the configured transport name. {@code auto} picks the best available native
+     * transport; an explicitly requested one that is not available falls back to NIO.
+     */
+    public static NettyTransport resolve(String configured) {
+        if (configured != null && !configured.equalsIgnoreCase("auto")) {
+            for (NettyTransport transport : values()) {
+                if (transport.configName.equalsIgnoreCase(configured)) {
+                    return transport.isAvailable() ? transport : NIO;
+                }
+            }
+            return NIO;
+        }
+
+        for (NettyTransport transport : values()) {
+            if (transport.isAvailable()) {
+                return transport;
+            }
+        }
+        return NIO;
+    }
+}
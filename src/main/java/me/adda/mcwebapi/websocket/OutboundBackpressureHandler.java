@@ -0,0 +1,168 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Bounds the memory a slow client can pin. While the channel is writable frames pass straight
+ * through; once Netty's outbound buffer crosses the high watermark further frames wait in a
+ * bounded queue that is drained on the next writability change. What happens when that queue
+ * is full is decided by the configured {@link Policy}.
+ */
+public class OutboundBackpressureHandler extends ChannelDuplexHandler {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public enum Policy {
+        /** Stop reading requests while the client is not keeping up; close if the queue still overflows. */
+        PAUSE_READING,
+        /** Discard the oldest queued frame to make room. */
+        DROP_OLDEST,
+        /** Close the connection. */
+        DISCONNECT;
+
+        public static Policy fromConfig(String value) {
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(value)) {
+                    return policy;
+                }
+            }
+            return PAUSE_READING;
+        }
+    }
+
+    private final ArrayDeque<PendingWrite> queue = new ArrayDeque<>();
+    private final ConnectionMetrics metrics;
+    private final Policy policy;
+    private final int maxQueuedFrames;
+
+    public OutboundBackpressureHandler(ConnectionMetrics metrics, Policy policy, int maxQueuedFrames) {
+        this.metrics = metrics;
+        this.policy = policy;
+        this.maxQueuedFrames = maxQueuedFrames;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (!(msg instanceof WebSocketFrame)) {
+            ctx.write(msg, promise);
+            return;
+        }
+
+        if (queue.isEmpty() && ctx.channel().isWritable()) {
+            writeFrame(ctx, (WebSocketFrame) msg, promise);
+            return;
+        }
+
+        if (queue.size() >= maxQueuedFrames) {
+            if (policy == Policy.DROP_OLDEST && dropOldestMessage()) {
+                metrics.droppedFrames++;
+            } else {
+                LOGGER.warn("Closing slow client {}: {} frames queued", ctx.channel().remoteAddress(), queue.size());
+                ReferenceCountUtil.release(msg);
+                promise.tryFailure(new IllegalStateException("Connection closed: client is not reading fast enough"));
+                metrics.droppedFrames++;
+                ctx.close();
+                return;
+            }
+        }
+
+        queue.add(new PendingWrite((WebSocketFrame) msg, promise));
+        updateQueueMetrics();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            drain(ctx);
+            if (queue.isEmpty() && policy == Policy.PAUSE_READING) {
+                ReadSuspension.resume(ctx.channel(), ReadSuspension.BACKPRESSURE);
+            }
+        } else {
+            metrics.unwritableEvents++;
+            if (policy == Policy.PAUSE_READING && !ReadSuspension.isSuspended(ctx.channel(), ReadSuspension.BACKPRESSURE)) {
+                ReadSuspension.suspend(ctx.channel(), ReadSuspension.BACKPRESSURE);
+                metrics.readPauses++;
+            }
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        discardQueue();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        discardQueue();
+        super.channelInactive(ctx);
+    }
+
+    private void drain(ChannelHandlerContext ctx) {
+        boolean wrote = false;
+        while (!queue.isEmpty() && ctx.channel().isWritable()) {
+            PendingWrite pending = queue.poll();
+            writeFrame(ctx, pending.frame, pending.promise);
+            wrote = true;
+        }
+        updateQueueMetrics();
+        if (wrote) {
+            ctx.flush();
+        }
+    }
+
+    /**
+     * Drops the oldest queued frame that is a whole message on its own. Fragments of a streamed
+     * response are never dropped, since that would corrupt the message on the client side.
+     */
+    private boolean dropOldestMessage() {
+        Iterator<PendingWrite> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            PendingWrite pending = iterator.next();
+            if (pending.frame.isFinalFragment() && !(pending.frame instanceof ContinuationWebSocketFrame)) {
+                iterator.remove();
+                pending.discard(new IllegalStateException("Frame dropped: client is not reading fast enough"));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeFrame(ChannelHandlerContext ctx, WebSocketFrame frame, ChannelPromise promise) {
+        metrics.framesWritten++;
+        metrics.bytesWritten += frame.content().readableBytes();
+        ctx.write(frame, promise);
+    }
+
+    private void updateQueueMetrics() {
+        int size = queue.size();
+        metrics.queuedFrames = size;
+        if (size > metrics.peakQueuedFrames) {
+            metrics.peakQueuedFrames = size;
+        }
+    }
+
+    private void discardQueue() {
+        PendingWrite pending;
+        while ((pending = queue.poll()) != null) {
+            pending.discard(new IllegalStateException("Connection closed"));
+        }
+        metrics.queuedFrames = 0;
+    }
+
+    private record PendingWrite(WebSocketFrame frame, ChannelPromise promise) {
+        void discard(Throwable cause) {
+            ReferenceCountUtil.release(frame);
+            promise.tryFailure(cause);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+/**
+ * Several handlers may want a connection to stop reading for different reasons. Each reason is
+ * a bit; auto-read is only switched back on once every reason has been cleared, so one handler
+ * resuming cannot undo another's pause. Must be used from the channel's event loop.
+ */
+public final class ReadSuspension {
+    /** The client is not draining responses fast enough. */
+    public static final int BACKPRESSURE = 1;
+    /** The client has reached its limit of requests being processed. */
+    public static final int IN_FLIGHT_LIMIT = 1 << 1;
+
+    private static final AttributeKey<ReadSuspension> KEY = AttributeKey.valueOf("mcwebapi.readSuspension");
+
+    private int reasons;
+
+    private ReadSuspension() {}
+
+    /**
+     * @return true if this call actually paused reading
+     */
+    public static boolean suspend(Channel channel, int reason) {
+        ReadSuspension state = of(channel);
+        boolean wasReading = state.reasons == 0;
+        state.reasons |= reason;
+        if (wasReading) {
+            channel.config().setAutoRead(false);
+        }
+        return wasReading;
+    }
+
+    public static void resume(Channel channel, int reason) {
+        ReadSuspension state = of(channel);
+        if (state.reasons == 0) {
+            return;
+        }
+        state.reasons &= ~reason;
+        if (state.reasons == 0) {
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    public static boolean isSuspended(Channel channel, int reason) {
+        ReadSuspension state = channel.attr(KEY).get();
+        return state != null && (state.reasons & reason) != 0;
+    }
+
+    private static ReadSuspension of(Channel channel) {
+        ReadSuspension state = channel.attr(KEY).get();
+        if (state == null) {
+            state = new ReadSuspension();
+            channel.attr(KEY).set(state);
+        }
+        return state;
+    }
+}
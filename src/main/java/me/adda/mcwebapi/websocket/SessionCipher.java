@@ -0,0 +1,209 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AttributeKey;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Per-connection AES-GCM state.
+ *
+ * <p>Frames are sealed as {@code nonce(12) || ciphertext || tag(16)}, the nonce being a random
+ * 4-byte prefix followed by a 64-bit big-endian counter. Every connection starts with its own
+ * bootstrap keys {@code HMAC-SHA256(key, label || bootstrapSalt)}, where {@code key} belongs to
+ * the identity named by the {@code ?identity=} query parameter ({@code authKey} without one);
+ * the random salt is sent to the client in a cleartext {@code HELLO} message right after the
+ * WebSocket handshake. A
+ * successful {@code auth.authenticate} returns a second salt and both sides switch to session
+ * keys derived the same way from it, with separate keys per direction.
+ *
+ * <p>Inbound frames must use a strictly increasing counter per key; repeated or older nonces
+ * are rejected, so captured frames cannot be replayed on the connection.
+ *
+ * <p>Not thread-safe: an instance must only be used from its channel's event loop.
+ */
+public class SessionCipher {
+    public static final AttributeKey<SessionCipher> KEY = AttributeKey.valueOf("mcwebapi.sessionCipher");
+
+    public static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String KEY_ALGORITHM = "AES";
+    private static final String KDF_ALGORITHM = "HmacSHA256";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+    private static final int SALT_LENGTH = 16;
+    private static final byte[] SERVER_TO_CLIENT = "mcwebapi-s2c".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLIENT_TO_SERVER = "mcwebapi-c2s".getBytes(StandardCharsets.US_ASCII);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Cipher encryptCipher;
+    private final Cipher decryptCipher;
+    private final byte[] nonce = new byte[NONCE_LENGTH];
+    private final int noncePrefix;
+    private long nonceCounter;
+    // Последний принятый счётчик nonce клиента под текущим ключом
+    private long lastInboundCounter;
+    private boolean inboundCounterSeen;
+    private final byte[] bootstrapSalt = new byte[SALT_LENGTH];
+
+    private SecretKey outboundKey;
+    private SecretKey inboundKey;
+    private SecretKey pendingOutboundKey;
+    private SecretKey pendingInboundKey;
+
+    public SessionCipher() throws GeneralSecurityException {
+        this.encryptCipher = Cipher.getInstance(TRANSFORMATION);
+        this.decryptCipher = Cipher.getInstance(TRANSFORMATION);
+        this.noncePrefix = RANDOM.nextInt();
+        RANDOM.nextBytes(bootstrapSalt);
+    }
+
+    /**
+     * Derives the bootstrap keys once the handshake has told which identity connects. No frame
+     * can be sealed or opened before that.
+     */
+    public void initBootstrapKeys(String key) throws GeneralSecurityException {
+        this.outboundKey = deriveKey(key, SERVER_TO_CLIENT, bootstrapSalt);
+        this.inboundKey = deriveKey(key, CLIENT_TO_SERVER, bootstrapSalt);
+    }
+
+    /**
+     * Salt of this connection's bootstrap keys, sent to the client in the cleartext HELLO.
+     */
+    public byte[] getBootstrapSalt() {
+        return bootstrapSalt.clone();
+    }
+
+    /**
+     * Derives session keys for a freshly authenticated client. They take effect after
+     * {@link #activatePendingKeys()}, so the authentication response itself is still sealed
+     * with the bootstrap key.
+     *
+     * @return salt the client needs to derive the same keys
+     */
+    public byte[] prepareSessionKeys(String authKey) throws GeneralSecurityException {
+        byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        pendingOutboundKey = deriveKey(authKey, SERVER_TO_CLIENT, salt);
+        pendingInboundKey = deriveKey(authKey, CLIENT_TO_SERVER, salt);
+        return salt;
+    }
+
+    public void activatePendingKeys() {
+        if (pendingOutboundKey == null) {
+            return;
+        }
+        outboundKey = pendingOutboundKey;
+        inboundKey = pendingInboundKey;
+        pendingOutboundKey = null;
+        pendingInboundKey = null;
+        nonceCounter = 0;
+        inboundCounterSeen = false;
+    }
+
+    public ByteBuf encrypt(ByteBuf plaintext, ByteBufAllocator allocator) throws GeneralSecurityException {
+        int length = plaintext.readableBytes();
+        ByteBuf out = allocator.ioBuffer(NONCE_LENGTH + length + TAG_LENGTH);
+        try {
+            initEncrypt();
+            out.writeBytes(nonce);
+            ByteBuffer target = out.nioBuffer(out.writerIndex(), length + TAG_LENGTH);
+            int written = encryptCipher.doFinal(plaintext.nioBuffer(), target);
+            out.writerIndex(out.writerIndex() + written);
+            return out;
+        } catch (GeneralSecurityException | RuntimeException e) {
+            out.release();
+            throw e;
+        }
+    }
+
+    public ByteBuf decrypt(ByteBuf sealed, ByteBufAllocator allocator) throws GeneralSecurityException {
+        int length = sealed.readableBytes() - NONCE_LENGTH;
+        if (length < TAG_LENGTH) {
+            throw new GeneralSecurityException("Encrypted frame is too short");
+        }
+
+        ByteBuf out = allocator.ioBuffer(length - TAG_LENGTH);
+        try {
+            byte[] peerNonce = initDecrypt(sealed.nioBuffer(sealed.readerIndex(), NONCE_LENGTH));
+            ByteBuffer target = out.nioBuffer(0, length - TAG_LENGTH);
+            int written = decryptCipher.doFinal(sealed.nioBuffer(sealed.readerIndex() + NONCE_LENGTH, length), target);
+            acceptInboundCounter(peerNonce);
+            out.writerIndex(written);
+            return out;
+        } catch (GeneralSecurityException | RuntimeException e) {
+            out.release();
+            throw e;
+        }
+    }
+
+    public byte[] encrypt(byte[] plaintext) throws GeneralSecurityException {
+        initEncrypt();
+        byte[] out = new byte[NONCE_LENGTH + plaintext.length + TAG_LENGTH];
+        System.arraycopy(nonce, 0, out, 0, NONCE_LENGTH);
+        encryptCipher.doFinal(plaintext, 0, plaintext.length, out, NONCE_LENGTH);
+        return out;
+    }
+
+    public byte[] decrypt(byte[] sealed) throws GeneralSecurityException {
+        if (sealed.length < NONCE_LENGTH + TAG_LENGTH) {
+            throw new GeneralSecurityException("Encrypted frame is too short");
+        }
+        byte[] peerNonce = initDecrypt(ByteBuffer.wrap(sealed, 0, NONCE_LENGTH));
+        byte[] plaintext = decryptCipher.doFinal(sealed, NONCE_LENGTH, sealed.length - NONCE_LENGTH);
+        acceptInboundCounter(peerNonce);
+        return plaintext;
+    }
+
+    private void initEncrypt() throws GeneralSecurityException {
+        // 4 случайных байта на сессию + счётчик: nonce никогда не повторяется для одного ключа
+        long counter = nonceCounter++;
+        nonce[0] = (byte) (noncePrefix >>> 24);
+        nonce[1] = (byte) (noncePrefix >>> 16);
+        nonce[2] = (byte) (noncePrefix >>> 8);
+        nonce[3] = (byte) noncePrefix;
+        for (int i = 0; i < 8; i++) {
+            nonce[4 + i] = (byte) (counter >>> (56 - 8 * i));
+        }
+        encryptCipher.init(Cipher.ENCRYPT_MODE, outboundKey, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+    }
+
+    private byte[] initDecrypt(ByteBuffer nonceBuffer) throws GeneralSecurityException {
+        byte[] peerNonce = new byte[NONCE_LENGTH];
+        nonceBuffer.get(peerNonce);
+        decryptCipher.init(Cipher.DECRYPT_MODE, inboundKey, new GCMParameterSpec(TAG_LENGTH * 8, peerNonce));
+        return peerNonce;
+    }
+
+    /**
+     * Accepts the nonce counter of a frame that passed authentication. Checked after the tag,
+     * so a forged frame cannot push the counter forward and lock the client out.
+     */
+    private void acceptInboundCounter(byte[] peerNonce) throws GeneralSecurityException {
+        long counter = 0;
+        for (int i = 4; i < NONCE_LENGTH; i++) {
+            counter = (counter << 8) | (peerNonce[i] & 0xFF);
+        }
+        if (inboundCounterSeen && Long.compareUnsigned(counter, lastInboundCounter) <= 0) {
+            throw new GeneralSecurityException("Replayed or out-of-order frame nonce");
+        }
+        lastInboundCounter = counter;
+        inboundCounterSeen = true;
+    }
+
+    private static SecretKey deriveKey(String authKey, byte[] label, byte[] salt) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(KDF_ALGORITHM);
+        mac.init(new SecretKeySpec(authKey.getBytes(StandardCharsets.UTF_8), KDF_ALGORITHM));
+        mac.update(label);
+        mac.update(salt);
+        return new SecretKeySpec(mac.doFinal(), KEY_ALGORITHM);
+    }
+}
@@ -0,0 +1,144 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.util.AttributeKey;
+import me.adda.mcwebapi.config.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional dump of WebSocket traffic to the {@code mcwebapi.traffic} logger.
+ *
+ * <p>The tap is off by default and costs a single flag check per frame. When enabled, globally
+ * through config or for a single connection at runtime, sampled frames are truncated to
+ * {@code trafficTapMaxBytes}, copied and handed to a background thread that does all formatting
+ * and logging, so event loops never block on an appender. Records are dropped when that thread
+ * falls behind.
+ */
+public class TrafficTap {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Logger TRAFFIC = LogManager.getLogger("mcwebapi.traffic");
+    private static final TrafficTap INSTANCE = new TrafficTap();
+    private static final AttributeKey<Boolean> ENABLED = AttributeKey.valueOf("mcwebapi.trafficTap");
+
+    private volatile boolean globalEnabled;
+    private volatile double sampleRate;
+    private volatile int maxBytes;
+
+    private BlockingQueue<Record> queue;
+    private Thread writer;
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public static TrafficTap getInstance() {
+        return INSTANCE;
+    }
+
+    private TrafficTap() {
+        // private constructor for singleton
+    }
+
+    public synchronized void start() {
+        globalEnabled = Config.SERVER.trafficTapEnabled.get();
+        sampleRate = Config.SERVER.trafficTapSampleRate.get();
+        maxBytes = Config.SERVER.trafficTapMaxBytes.get();
+
+        if (writer == null) {
+            queue = new ArrayBlockingQueue<>(Config.SERVER.trafficTapQueueSize.get());
+            writer = new Thread(this::writeLoop, "mcwebapi-traffic-tap");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public synchronized void stop() {
+        globalEnabled = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer = null;
+        }
+    }
+
+    public boolean isActive(Channel channel) {
+        return globalEnabled || Boolean.TRUE.equals(channel.attr(ENABLED).get());
+    }
+
+    /**
+     * Enables or disables the tap for connections whose remote address matches.
+     *
+     * @return number of connections affected
+     */
+    public int setEnabled(String remoteAddress, boolean enabled) {
+        int matched = 0;
+        for (ConnectionMetrics metrics : ConnectionMetrics.getAll()) {
+            Channel channel = metrics.getChannel();
+            if (String.valueOf(channel.remoteAddress()).equals(remoteAddress)) {
+                channel.attr(ENABLED).set(enabled);
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    public void capture(Channel channel, boolean inbound, WebSocketFrame frame) {
+        BlockingQueue<Record> target = queue;
+        if (target == null || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        ByteBuf content = frame.content();
+        int length = content.readableBytes();
+        byte[] payload = ByteBufUtil.getBytes(content, content.readerIndex(), Math.min(length, maxBytes));
+        Record record = new Record(String.valueOf(channel.remoteAddress()), inbound,
+                frame.getClass().getSimpleName(), frame instanceof TextWebSocketFrame, length, payload);
+
+        if (target.offer(record)) {
+            captured.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("globalEnabled", globalEnabled);
+        stats.put("sampleRate", sampleRate);
+        stats.put("maxBytes", maxBytes);
+        stats.put("captured", captured.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private void writeLoop() {
+        BlockingQueue<Record> source = queue;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Record record = source.take();
+                String body = record.text
+                        ? new String(record.payload, StandardCharsets.UTF_8)
+                        : ByteBufUtil.hexDump(record.payload);
+                TRAFFIC.info("{} {} {} {} bytes{}: {}",
+                        record.remoteAddress, record.inbound ? "<<" : ">>", record.frameType, record.length,
+                        record.payload.length < record.length ? " (truncated)" : "", body);
+            }
+        } catch (InterruptedException e) {
+            LOGGER.debug("Traffic tap writer stopped");
+        }
+    }
+
+    private record Record(String remoteAddress, boolean inbound, String frameType,
+                          boolean text, int length, byte[] payload) {
+    }
+}
@@ -0,0 +1,29 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+
+/**
+ * Hands WebSocket frames to {@link TrafficTap} when the tap is active for this channel.
+ */
+public class TrafficTapHandler extends ChannelDuplexHandler {
+    private final TrafficTap tap = TrafficTap.getInstance();
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof WebSocketFrame && tap.isActive(ctx.channel())) {
+            tap.capture(ctx.channel(), true, (WebSocketFrame) msg);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof WebSocketFrame && tap.isActive(ctx.channel())) {
+            tap.capture(ctx.channel(), false, (WebSocketFrame) msg);
+        }
+        super.write(ctx, msg, promise);
+    }
+}
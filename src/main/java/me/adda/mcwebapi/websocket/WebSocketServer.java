@@ -1,21 +1,28 @@
 package me.adda.mcwebapi.websocket;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.WriteBufferWaterMark;
 import me.adda.mcwebapi.api.ReflectiveApiDispatcher;
 import me.adda.mcwebapi.config.Config;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class WebSocketServer {
     private static final Logger LOGGER = LogManager.getLogger();
 
+    private static volatile NettyTransport activeTransport;
+
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
     private Channel channel;
+    private ExecutorService dispatchExecutor;
     private final ReflectiveApiDispatcher apiDispatcher;
 
     public WebSocketServer(ReflectiveApiDispatcher apiDispatcher) {
@@ -23,26 +30,73 @@ public class WebSocketServer {
     }
 
     public void start() {
-        bossGroup = new NioEventLoopGroup(1);
-        workerGroup = new NioEventLoopGroup();
+        String configuredTransport = Config.SERVER.transport.get();
+        NettyTransport transport = NettyTransport.resolve(configuredTransport);
+        if (!configuredTransport.equalsIgnoreCase("auto")
+                && !configuredTransport.equalsIgnoreCase(transport.getConfigName())) {
+            LOGGER.warn("Transport '{}' is not available, falling back to {}", configuredTransport, transport.getConfigName());
+        }
+
+        TrafficTap.getInstance().start();
+
+        // Виртуальные потоки: event loop только декодирует, блокирующие ожидания ничего не стоят.
+        // Режим экспериментальный: его пропускная способность не измерена
+        if (Config.SERVER.experimentalVirtualThreads.get()) {
+            LOGGER.warn("Experimental virtual thread dispatch is enabled; it is unsupported and not benchmarked");
+            dispatchExecutor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("mcwebapi-dispatch-", 0).factory());
+        }
+
+        int workerThreads = getWorkerThreadCount();
+        bossGroup = transport.newEventLoopGroup(Config.SERVER.bossThreads.get());
+        workerGroup = transport.newEventLoopGroup(workerThreads);
+        activeTransport = transport;
 
         try {
+            int lowWaterMark = Config.SERVER.writeBufferLowWaterMark.get();
+            int highWaterMark = Math.max(lowWaterMark, Config.SERVER.writeBufferHighWaterMark.get());
+
+            ByteBufAllocator allocator = BufferAllocators.create();
+
             ServerBootstrap bootstrap = new ServerBootstrap();
             bootstrap.group(bossGroup, workerGroup)
-                    .channel(NioServerSocketChannel.class)
-                    .childHandler(new WebSocketServerInitializer(apiDispatcher));
+                    .channel(transport.getServerChannelClass())
+                    .option(ChannelOption.ALLOCATOR, allocator)
+                    .childOption(ChannelOption.ALLOCATOR, allocator)
+                    .option(ChannelOption.SO_BACKLOG, Config.SERVER.soBacklog.get())
+                    .childOption(ChannelOption.TCP_NODELAY, Config.SERVER.tcpNoDelay.get())
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                            new WriteBufferWaterMark(lowWaterMark, highWaterMark))
+                    .childHandler(new WebSocketServerInitializer(apiDispatcher, dispatchExecutor));
+
+            // 0 означает системное значение, такие опции не выставляем вовсе
+            if (Config.SERVER.sendBufferSize.get() > 0) {
+                bootstrap.childOption(ChannelOption.SO_SNDBUF, Config.SERVER.sendBufferSize.get());
+            }
+            if (Config.SERVER.receiveBufferSize.get() > 0) {
+                bootstrap.childOption(ChannelOption.SO_RCVBUF, Config.SERVER.receiveBufferSize.get());
+            }
 
             String host = Config.SERVER.host.get();
             int port = Config.SERVER.port.get();
             channel = bootstrap.bind(host, port).sync().channel();
 
-            LOGGER.info("WebSocket API server started on {}:{}", host, port);
+            LOGGER.info("WebSocket API server started on {}:{} using {} transport with {} worker threads, dispatching on {}",
+                    host, port, transport.getConfigName(), workerThreads,
+                    dispatchExecutor != null ? "virtual threads" : "event loops");
         } catch (InterruptedException e) {
             LOGGER.error("Failed to start WebSocket server", e);
             stop();
         }
     }
 
+    private static int getWorkerThreadCount() {
+        int configured = Config.SERVER.workerThreads.get();
+        // Одно ядро всегда оставляем главному потоку игры
+        int threads = configured > 0 ? configured : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        return Math.min(threads, Config.SERVER.maxWorkerThreads.get());
+    }
+
     public void stop() {
         if (channel != null) {
             channel.close();
@@ -53,6 +107,12 @@ public class WebSocketServer {
         if (workerGroup != null) {
             workerGroup.shutdownGracefully();
         }
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+            dispatchExecutor = null;
+        }
+        activeTransport = null;
+        TrafficTap.getInstance().stop();
 
         LOGGER.info("WebSocket API server stopped");
     }
@@ -60,4 +120,11 @@ public class WebSocketServer {
     public boolean isRunning() {
         return channel != null && channel.isActive();
     }
+
+    /**
+     * Transport of the running server, or {@code null} when it is stopped.
+     */
+    public static NettyTransport getActiveTransport() {
+        return activeTransport;
+    }
 }
\ No newline at end of file
@@ -1,33 +1,75 @@
 package me.adda.mcwebapi.websocket;
 
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.codec.http.websocketx.*;
+import me.adda.mcwebapi.api.ApiTaskScheduler;
+import me.adda.mcwebapi.api.InFlightRequests;
 import me.adda.mcwebapi.api.Message;
 import me.adda.mcwebapi.api.ReflectiveApiDispatcher;
 import me.adda.mcwebapi.api.modules.AuthApiModule;
+import me.adda.mcwebapi.config.Config;
+import me.adda.mcwebapi.websocket.codec.MessageCodec;
+import me.adda.mcwebapi.websocket.codec.MessageCodecs;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public class WebSocketServerHandler extends SimpleChannelInboundHandler<WebSocketFrame> {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final ObjectMapper mapper = new ObjectMapper();
 
     private final AuthManager authManager;
     private final ReflectiveApiDispatcher apiDispatcher;
+    // null: диспетчеризация прямо в event loop
+    private final Executor dispatchExecutor;
     private AuthApiModule authModule;
+    private final InFlightRequests inFlight = new InFlightRequests();
+    private ConnectionMetrics metrics;
+    // Очередь соединения в планировщике серверного потока
+    private ApiTaskScheduler.Client schedulerClient;
+
+    // Клиент, приславший бинарный фрейм, получает ответы тоже в бинарных фреймах
+    private boolean binaryFrames;
+    // Формат сериализации, выбранный через WebSocket subprotocol
+    private MessageCodec codec = MessageCodecs.JSON;
+    // Состояние шифрования соединения, null если enableSSL выключен
+    private SessionCipher cipher;
 
-    public WebSocketServerHandler(ReflectiveApiDispatcher apiDispatcher) {
+    // Упаковка нескольких ответов в один фрейм, включается параметром ?pack=true при подключении
+    private boolean packResponses;
+    private boolean packFlushScheduled;
+    private final List<Message> packedResponses = new ArrayList<>();
+
+    public WebSocketServerHandler(ReflectiveApiDispatcher apiDispatcher, Executor dispatchExecutor) {
         this.authManager = AuthManager.getInstance();
         this.apiDispatcher = apiDispatcher;
+        this.dispatchExecutor = dispatchExecutor;
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         LOGGER.info("New client connection: {}", ctx.channel().remoteAddress());
 
-        this.authModule = new AuthApiModule(ctx.channel());
+        this.authModule = new AuthApiModule(ctx.channel(), apiDispatcher);
+        this.metrics = ConnectionMetrics.get(ctx.channel());
+        this.schedulerClient = ApiTaskScheduler.getInstance().register(
+                String.valueOf(ctx.channel().remoteAddress()), Config.SERVER.defaultClientWeight.get());
+
+        if (Config.SERVER.enableSSL.get()) {
+            this.cipher = new SessionCipher();
+            ctx.channel().attr(SessionCipher.KEY).set(cipher);
+        }
         super.channelActive(ctx);
     }
 
@@ -36,6 +78,8 @@ public class WebSocketServerHandler extends SimpleChannelInboundHandler<WebSocke
         try {
             if (frame instanceof TextWebSocketFrame) {
                 handleTextFrame(ctx, (TextWebSocketFrame) frame);
+            } else if (frame instanceof BinaryWebSocketFrame) {
+                handleBinaryFrame(ctx, (BinaryWebSocketFrame) frame);
             } else if (frame instanceof CloseWebSocketFrame) {
                 handleCloseFrame(ctx, (CloseWebSocketFrame) frame);
             } else if (frame instanceof PingWebSocketFrame) {
@@ -50,34 +94,92 @@ public class WebSocketServerHandler extends SimpleChannelInboundHandler<WebSocke
     }
 
     private void handleTextFrame(ChannelHandlerContext ctx, TextWebSocketFrame frame) {
-        String requestText = frame.text();
-        LOGGER.debug("Received WebSocket text frame: {}", requestText);
+        try {
+            binaryFrames = false;
+            handleRequest(ctx, BinaryCodec.decode(frame.text(), cipher));
+        } catch (Exception e) {
+            LOGGER.error("Error processing WebSocket message", e);
+            sendError(ctx, null, "PROCESSING_ERROR", e.getMessage());
+        }
+    }
 
+    private void handleBinaryFrame(ChannelHandlerContext ctx, BinaryWebSocketFrame frame) {
         try {
-            Message request = BinaryCodec.decode(requestText);
+            binaryFrames = true;
+            handleRequest(ctx, BinaryCodec.decode(frame.content(), ctx.alloc(), codec, cipher));
+        } catch (Exception e) {
+            LOGGER.error("Error processing WebSocket message", e);
+            sendError(ctx, null, "PROCESSING_ERROR", e.getMessage());
+        }
+    }
 
-            LOGGER.debug("Decoded message: type={}, module={}, method={}, requestId={}",
-                    request.getType(), request.getModule(), request.getMethod(), request.getRequestId());
+    private void handleRequest(ChannelHandlerContext ctx, Message request) {
+        if ("auth".equals(request.getModule())) {
+            apiDispatcher.dispatchWithModule(request, authModule, inFlight, schedulerClient)
+                    .thenAccept(response -> runOnEventLoop(ctx, () -> {
+                        writeMessage(ctx, response);
 
-            if ("auth".equals(request.getModule())) {
-                Message response = apiDispatcher.dispatchWithModule(request, authModule);
+                        // После входа соединение получает вес своей identity
+                        String identity = authManager.getIdentity(ctx.channel());
+                        if (identity != null) {
+                            schedulerClient.configure(identity, authManager.getWeight(identity));
+                        }
+
+                        // Ответ на authenticate ещё запечатан bootstrap-ключом, дальше работают ключи сессии
+                        if (cipher != null) {
+                            cipher.activatePendingKeys();
+                        }
+                    }));
+            return;
+        }
+
+        if (!authManager.isAuthenticated(ctx.channel())) {
+            LOGGER.warn("Unauthorized access attempt from {}: {}.{}",
+                    ctx.channel().remoteAddress(), request.getModule(), request.getMethod());
+            sendError(ctx, request, "NOT_AUTHENTICATED", "Authentication required. Use auth.authenticate(key) first.");
+            return;
+        }
+
+        // Ответ может прийти с серверного потока, запись всегда идёт из event loop канала.
+        // Запросы не ждут друг друга: ответы уходят по мере готовности, клиент сопоставляет их по requestId
+        // ID захватывается здесь, в event loop; в пул виртуальных потоков уходит только выполнение
+        dispatch(request).whenComplete((response, error) -> runOnEventLoop(ctx, () -> {
+            if (response != null) {
                 sendResponse(ctx, response);
-                return;
+            } else {
+                sendError(ctx, request, "EXECUTION_ERROR", "Request could not be dispatched: " + error.getMessage());
             }
+            updateInFlight(ctx);
+        }));
+        updateInFlight(ctx);
+    }
 
-            if (!authManager.isAuthenticated(ctx.channel())) {
-                LOGGER.warn("Unauthorized access attempt from {}: {}.{}",
-                        ctx.channel().remoteAddress(), request.getModule(), request.getMethod());
-                sendError(ctx, request, "NOT_AUTHENTICATED", "Authentication required. Use auth.authenticate(key) first.");
-                return;
-            }
+    private CompletableFuture<Message> dispatch(Message request) {
+        return "BATCH".equals(request.getType())
+                ? apiDispatcher.dispatchBatch(request, inFlight, schedulerClient, dispatchExecutor)
+                : apiDispatcher.dispatch(request, inFlight, schedulerClient, dispatchExecutor);
+    }
 
-            Message response = apiDispatcher.dispatch(request);
-            sendResponse(ctx, response);
+    private void updateInFlight(ChannelHandlerContext ctx) {
+        int inFlightCount = inFlight.size();
+        if (metrics != null) {
+            metrics.inFlightRequests = inFlightCount;
+        }
 
-        } catch (Exception e) {
-            LOGGER.error("Error processing WebSocket message", e);
-            sendError(ctx, null, "PROCESSING_ERROR", e.getMessage());
+        if (inFlightCount >= Config.SERVER.maxInFlightRequests.get()) {
+            if (ReadSuspension.suspend(ctx.channel(), ReadSuspension.IN_FLIGHT_LIMIT) && metrics != null) {
+                metrics.inFlightPauses++;
+            }
+        } else if (ReadSuspension.isSuspended(ctx.channel(), ReadSuspension.IN_FLIGHT_LIMIT)) {
+            ReadSuspension.resume(ctx.channel(), ReadSuspension.IN_FLIGHT_LIMIT);
+        }
+    }
+
+    private static void runOnEventLoop(ChannelHandlerContext ctx, Runnable task) {
+        if (ctx.executor().inEventLoop()) {
+            task.run();
+        } else {
+            ctx.executor().execute(task);
         }
     }
 
@@ -88,7 +190,6 @@ public class WebSocketServerHandler extends SimpleChannelInboundHandler<WebSocke
     }
 
     private void handlePingFrame(ChannelHandlerContext ctx, PingWebSocketFrame frame) {
-        LOGGER.debug("Received ping, sending pong");
         ctx.channel().writeAndFlush(new PongWebSocketFrame(frame.content().retain()));
     }
 
@@ -98,42 +199,126 @@ public class WebSocketServerHandler extends SimpleChannelInboundHandler<WebSocke
             WebSocketServerProtocolHandler.HandshakeComplete handshake =
                     (WebSocketServerProtocolHandler.HandshakeComplete) evt;
             LOGGER.info("WebSocket handshake completed: {}", handshake.requestUri());
+
+            codec = MessageCodecs.forSubprotocol(handshake.selectedSubprotocol());
+            binaryFrames = codec.isBinary();
+            LOGGER.debug("Negotiated codec {} for {}", codec.getSubprotocol(), ctx.channel().remoteAddress());
+
+            Map<String, List<String>> parameters = new QueryStringDecoder(handshake.requestUri()).parameters();
+            List<String> pack = parameters.get("pack");
+            packResponses = pack != null && !pack.isEmpty() && Boolean.parseBoolean(pack.get(0));
+
+            // Соль bootstrap-ключей уходит открытым текстом до первого зашифрованного кадра
+            if (cipher != null) {
+                // Ключ до входа берётся у identity из ?identity=, общий authKey ей знать не нужно
+                List<String> identityParam = parameters.get("identity");
+                String identity = identityParam != null && !identityParam.isEmpty()
+                        ? identityParam.get(0) : AuthManager.DEFAULT_IDENTITY;
+                String key = authManager.getKey(identity);
+                if (key == null) {
+                    LOGGER.warn("Unknown identity '{}' from {}", identity, ctx.channel().remoteAddress());
+                    ctx.close();
+                    return;
+                }
+                cipher.initBootstrapKeys(key);
+
+                Message hello = new Message("HELLO", null);
+                hello.setData(Map.of("bootstrapSalt", Base64.getEncoder().encodeToString(cipher.getBootstrapSalt())));
+                streamMessage(ctx, hello);
+            }
             LOGGER.info("Client connected: {}", ctx.channel().remoteAddress());
         }
         super.userEventTriggered(ctx, evt);
     }
 
     private void sendResponse(ChannelHandlerContext ctx, Message response) {
+        if (!packResponses) {
+            writeMessage(ctx, response);
+            return;
+        }
+
+        packedResponses.add(response);
+        if (packedResponses.size() >= Config.SERVER.maxPackedResponses.get()) {
+            flushPackedResponses(ctx);
+        } else if (!packFlushScheduled) {
+            // Задача выполнится после текущего прохода чтения, собрав все готовые к этому моменту ответы
+            packFlushScheduled = true;
+            ctx.executor().execute(() -> flushPackedResponses(ctx));
+        }
+    }
+
+    private void flushPackedResponses(ChannelHandlerContext ctx) {
+        packFlushScheduled = false;
+        if (packedResponses.isEmpty()) {
+            return;
+        }
+
+        if (packedResponses.size() == 1) {
+            writeMessage(ctx, packedResponses.remove(0));
+            return;
+        }
+
+        Message packed = new Message("PACKED", null);
+        packed.setData(new ArrayList<>(packedResponses));
+        packedResponses.clear();
+        writeMessage(ctx, packed);
+    }
+
+    private void writeMessage(ChannelHandlerContext ctx, Message message) {
+        if (cipher == null) {
+            streamMessage(ctx, message);
+            return;
+        }
+
+        // Зашифрованный ответ запечатывается целиком одним тегом, поэтому без фрагментации
         try {
-            String responseText = BinaryCodec.encode(response);
-            ctx.writeAndFlush(new TextWebSocketFrame(responseText));
-            LOGGER.debug("Sent response: requestId={}", response.getRequestId());
+            ctx.writeAndFlush(encodeFrame(ctx, message));
         } catch (Exception e) {
             LOGGER.error("Error sending response", e);
         }
     }
 
-    private void sendError(ChannelHandlerContext ctx, Message request, String code, String message) {
+    private void streamMessage(ChannelHandlerContext ctx, Message message) {
+        FragmentedFrameOutputStream out =
+                new FragmentedFrameOutputStream(ctx, binaryFrames, Config.SERVER.streamChunkSize.get());
         try {
-            Message errorResponse = new Message("ERROR", request != null ? request.getRequestId() : "000");
-            errorResponse.setStatus("ERROR");
+            BinaryCodec.encode(message, out, codec, binaryFrames);
+            ctx.flush();
+        } catch (Exception e) {
+            LOGGER.error("Error sending response", e);
+            if (out.abort()) {
+                // Часть фрагментов уже ушла, сообщение не может быть завершено корректно
+                ctx.flush();
+                ctx.close();
+            }
+        }
+    }
+
+    private void sendError(ChannelHandlerContext ctx, Message request, String code, String message) {
+        Message errorResponse = new Message("ERROR", request != null ? request.getRequestId() : "000");
+        errorResponse.setStatus("ERROR");
 
-            java.util.Map<String, Object> errorData = new java.util.HashMap<>();
-            errorData.put("code", code);
-            errorData.put("message", message);
-            errorResponse.setData(errorData);
+        Map<String, Object> errorData = new HashMap<>();
+        errorData.put("code", code);
+        errorData.put("message", message);
+        errorResponse.setData(errorData);
 
-            String errorText = BinaryCodec.encode(errorResponse);
-            ctx.writeAndFlush(new TextWebSocketFrame(errorText));
-            LOGGER.debug("Sent error: code={}, message={}", code, message);
-        } catch (Exception e) {
-            LOGGER.error("Error sending error response", e);
+        sendResponse(ctx, errorResponse);
+    }
+
+    private WebSocketFrame encodeFrame(ChannelHandlerContext ctx, Message message) {
+        if (binaryFrames) {
+            return new BinaryWebSocketFrame(BinaryCodec.encode(message, ctx.alloc(), codec, cipher));
         }
+        return new TextWebSocketFrame(ByteBufUtil.writeAscii(ctx.alloc(), BinaryCodec.encode(message, cipher)));
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) {
         authManager.removeChannel(ctx.channel());
+        if (schedulerClient != null) {
+            ApiTaskScheduler.getInstance().unregister(schedulerClient);
+        }
         LOGGER.info("Client disconnected: {}", ctx.channel().remoteAddress());
     }
 
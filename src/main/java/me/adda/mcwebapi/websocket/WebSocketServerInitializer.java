@@ -6,54 +6,85 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
-import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
-import io.netty.handler.logging.LogLevel;
-import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.DeflateFrameServerExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.timeout.IdleStateHandler;
 import me.adda.mcwebapi.api.ReflectiveApiDispatcher;
 import me.adda.mcwebapi.config.Config;
+import me.adda.mcwebapi.websocket.codec.MessageCodecs;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 public class WebSocketServerInitializer extends ChannelInitializer<SocketChannel> {
     private static final String WEBSOCKET_PATH = "/";
     private final ReflectiveApiDispatcher apiDispatcher;
+    private final Executor dispatchExecutor;
 
-    public WebSocketServerInitializer(ReflectiveApiDispatcher apiDispatcher) {
+    public WebSocketServerInitializer(ReflectiveApiDispatcher apiDispatcher, Executor dispatchExecutor) {
         this.apiDispatcher = apiDispatcher;
+        this.dispatchExecutor = dispatchExecutor;
     }
 
     @Override
     protected void initChannel(SocketChannel ch) throws Exception {
         ChannelPipeline pipeline = ch.pipeline();
+        ConnectionMetrics metrics = ConnectionMetrics.register(ch);
 
-        // Логирование (только для отладки)
-        pipeline.addLast(new LoggingHandler(LogLevel.DEBUG));
+        // Объединение flush во время чтения: один syscall на пачку ответов
+        pipeline.addLast(new FlushConsolidationHandler(Config.SERVER.flushConsolidationLimit.get(), true));
 
         // HTTP кодек для обработки HTTP запросов
         pipeline.addLast(new HttpServerCodec());
 
         // Аггрегатор для обработки полных HTTP сообщений
-        pipeline.addLast(new HttpObjectAggregator(65536));
+        pipeline.addLast(new HttpObjectAggregator(Config.SERVER.maxFramePayloadLength.get()));
 
         // Обработчик idle соединений
         pipeline.addLast(new IdleStateHandler(300, 0, 0, TimeUnit.SECONDS));
 
-        // Сжатие WebSocket
-        pipeline.addLast(new WebSocketServerCompressionHandler());
+        // Сжатие WebSocket с порогом по размеру и обходом зашифрованных/уже сжатых данных
+        if (Config.SERVER.compressionEnabled.get()) {
+            int level = Config.SERVER.compressionLevel.get();
+            AdaptiveCompressionFilter filter =
+                    new AdaptiveCompressionFilter(ch, metrics, Config.SERVER.compressionMinSize.get());
+            CompressionMetricsHandler wireMetrics = CompressionMetricsHandler.wire(metrics);
+
+            pipeline.addLast(wireMetrics);
+            pipeline.addLast(new WebSocketServerExtensionHandler(
+                    new PerMessageDeflateServerExtensionHandshaker(
+                            level, ZlibCodecFactory.isSupportingWindowSizeAndMemLevel(),
+                            PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE, false, false, filter),
+                    new DeflateFrameServerExtensionHandshaker(level, filter)
+            ));
+            pipeline.addLast(CompressionMetricsHandler.raw(wireMetrics));
+        }
 
         // Обработчик WebSocket протокола с корневым путем
         pipeline.addLast(new WebSocketServerProtocolHandler(
                 WEBSOCKET_PATH,
-                null,
+                MessageCodecs.supportedSubprotocols(),
                 true,
-                65536,
+                Config.SERVER.maxFramePayloadLength.get(),
                 false,
                 true,
                 Config.SERVER.timeout.get() * 1000
         ));
 
+        // Ограничение исходящей очереди для медленных клиентов
+        pipeline.addLast(new OutboundBackpressureHandler(
+                metrics,
+                OutboundBackpressureHandler.Policy.fromConfig(Config.SERVER.slowConsumerPolicy.get()),
+                Config.SERVER.maxQueuedFrames.get()
+        ));
+
+        // Запись трафика, включается через конфиг или server.setTrafficTap
+        pipeline.addLast(new TrafficTapHandler());
+
         // Обработчик WebSocket фреймов
-        pipeline.addLast(new WebSocketServerHandler(apiDispatcher));
+        pipeline.addLast(new WebSocketServerHandler(apiDispatcher, dispatchExecutor));
     }
 }
\ No newline at end of file
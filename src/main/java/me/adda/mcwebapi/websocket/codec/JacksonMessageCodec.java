@@ -0,0 +1,40 @@
+package me.adda.mcwebapi.websocket.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.adda.mcwebapi.api.Message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class JacksonMessageCodec implements MessageCodec {
+    private final String subprotocol;
+    private final ObjectMapper mapper;
+    private final boolean binary;
+
+    public JacksonMessageCodec(String subprotocol, ObjectMapper mapper, boolean binary) {
+        this.subprotocol = subprotocol;
+        this.mapper = mapper;
+        this.binary = binary;
+    }
+
+    @Override
+    public String getSubprotocol() {
+        return subprotocol;
+    }
+
+    @Override
+    public boolean isBinary() {
+        return binary;
+    }
+
+    @Override
+    public void write(Message message, OutputStream out) throws IOException {
+        mapper.writeValue(out, message);
+    }
+
+    @Override
+    public Message read(InputStream in) throws IOException {
+        return mapper.readValue(in, Message.class);
+    }
+}
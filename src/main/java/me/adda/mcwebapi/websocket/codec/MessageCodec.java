@@ -0,0 +1,27 @@
+package me.adda.mcwebapi.websocket.codec;
+
+import me.adda.mcwebapi.api.Message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Serialization format for {@link Message}s on a binary WebSocket connection.
+ * A codec is selected once per connection through the WebSocket subprotocol.
+ */
+public interface MessageCodec {
+    /**
+     * Subprotocol name offered during the handshake, e.g. {@code mcwebapi.msgpack}.
+     */
+    String getSubprotocol();
+
+    /**
+     * Whether the format is not valid UTF-8 text and therefore must travel in binary frames.
+     */
+    boolean isBinary();
+
+    void write(Message message, OutputStream out) throws IOException;
+
+    Message read(InputStream in) throws IOException;
+}
@@ -0,0 +1,49 @@
+package me.adda.mcwebapi.websocket.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class MessageCodecs {
+    public static final MessageCodec JSON =
+            new JacksonMessageCodec("mcwebapi.json", new ObjectMapper(), false);
+    public static final MessageCodec MSGPACK =
+            new JacksonMessageCodec("mcwebapi.msgpack", new ObjectMapper(new MessagePackFactory()), true);
+    public static final MessageCodec CBOR =
+            new JacksonMessageCodec("mcwebapi.cbor", new ObjectMapper(new CBORFactory()), true);
+
+    private static final Map<String, MessageCodec> BY_SUBPROTOCOL = new LinkedHashMap<>();
+
+    static {
+        register(JSON);
+        register(MSGPACK);
+        register(CBOR);
+    }
+
+    private MessageCodecs() {
+    }
+
+    private static void register(MessageCodec codec) {
+        BY_SUBPROTOCOL.put(codec.getSubprotocol(), codec);
+    }
+
+    /**
+     * Codec for the subprotocol chosen during the handshake; JSON when the client did not ask for one.
+     */
+    public static MessageCodec forSubprotocol(String subprotocol) {
+        if (subprotocol == null || subprotocol.isEmpty()) {
+            return JSON;
+        }
+        return BY_SUBPROTOCOL.getOrDefault(subprotocol, JSON);
+    }
+
+    /**
+     * Comma separated list in the form expected by {@code WebSocketServerProtocolHandler}.
+     */
+    public static String supportedSubprotocols() {
+        return String.join(",", BY_SUBPROTOCOL.keySet());
+    }
+}
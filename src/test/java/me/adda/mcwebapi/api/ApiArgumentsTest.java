@@ -0,0 +1,127 @@
+package me.adda.mcwebapi.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiArgumentsTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void intAcceptsFullRange() {
+        assertEquals(Integer.MAX_VALUE, ApiArguments.toInt(args("[2147483647]"), 0));
+        assertEquals(Integer.MIN_VALUE, ApiArguments.toInt(args("[-2147483648]"), 0));
+        assertEquals(42, ApiArguments.toInt(args("[\" 42 \"]"), 0));
+    }
+
+    @Test
+    void intRejectsOutOfRange() {
+        assertOutOfRange(() -> ApiArguments.toInt(args("[2147483648]"), 0));
+        assertOutOfRange(() -> ApiArguments.toInt(args("[-2147483649]"), 0));
+        assertOutOfRange(() -> ApiArguments.toInt(args("[4294967297]"), 0));
+        assertOutOfRange(() -> ApiArguments.toInt(args("[\"4294967297\"]"), 0));
+        assertOutOfRange(() -> ApiArguments.toInt(args("[1e10]"), 0));
+    }
+
+    @Test
+    void longAcceptsFullRange() {
+        assertEquals(Long.MAX_VALUE, ApiArguments.toLong(args("[9223372036854775807]"), 0));
+        assertEquals(Long.MIN_VALUE, ApiArguments.toLong(args("[\"-9223372036854775808\"]"), 0));
+    }
+
+    @Test
+    void longRejectsOutOfRange() {
+        assertOutOfRange(() -> ApiArguments.toLong(args("[9223372036854775808]"), 0));
+        assertOutOfRange(() -> ApiArguments.toLong(args("[1e30]"), 0));
+        assertThrows(ApiArgumentException.class, () -> ApiArguments.toLong(args("[\"9223372036854775808\"]"), 0));
+    }
+
+    @Test
+    void floatAcceptsFullRange() {
+        assertEquals(Float.MAX_VALUE, ApiArguments.toFloat(args("[3.4028234663852886E38]"), 0));
+        assertEquals(1.5f, ApiArguments.toFloat(args("[\"1.5\"]"), 0));
+    }
+
+    @Test
+    void floatRejectsOutOfRange() {
+        assertOutOfRange(() -> ApiArguments.toFloat(args("[1e39]"), 0));
+        assertOutOfRange(() -> ApiArguments.toFloat(args("[-1e39]"), 0));
+        assertOutOfRange(() -> ApiArguments.toFloat(args("[\"1e39\"]"), 0));
+    }
+
+    @Test
+    void booleanDecoding() {
+        assertTrue(ApiArguments.toBoolean(args("[true]"), 0));
+        assertFalse(ApiArguments.toBoolean(args("[\"false\"]"), 0));
+        assertTrue(ApiArguments.toBoolean(args("[0.5]"), 0));
+        assertFalse(ApiArguments.toBoolean(args("[0]"), 0));
+    }
+
+    @Test
+    void rejectsWrongTypes() {
+        assertMismatch(() -> ApiArguments.toInt(args("[true]"), 0), "expected int, got boolean");
+        assertMismatch(() -> ApiArguments.toLong(args("[[1]]"), 0), "expected long, got array");
+        assertMismatch(() -> ApiArguments.toFloat(args("[{}]"), 0), "expected float, got object");
+        assertMismatch(() -> ApiArguments.toBoolean(args("[[]]"), 0), "expected boolean, got array");
+        assertMismatch(() -> ApiArguments.toUuid(args("[1]"), 0), "expected UUID, got number");
+        assertThrows(ApiArgumentException.class, () -> ApiArguments.toInt(args("[\"abc\"]"), 0));
+        assertThrows(ApiArgumentException.class, () -> ApiArguments.toUuid(args("[\"not-a-uuid\"]"), 0));
+    }
+
+    @Test
+    void primitivesRejectNull() {
+        ApiArgumentException e = assertThrows(ApiArgumentException.class, () -> ApiArguments.toInt(args("[null]"), 0));
+        assertEquals("argument 0 must not be null", e.getMessage());
+        assertNull(ApiArguments.toIntegerOrNull(args("[null]"), 0));
+        assertNull(ApiArguments.toBooleanOrNull(args("[null]"), 0));
+    }
+
+    @Test
+    void rejectsMissingArguments() {
+        ApiArgumentException e = assertThrows(ApiArgumentException.class, () -> ApiArguments.toInt(args("[1]"), 1));
+        assertEquals("expected at least 2 arguments, got 1", e.getMessage());
+        assertThrows(ApiArgumentException.class, () -> ApiArguments.toInt(null, 0));
+    }
+
+    @Test
+    void enumByNameOrOrdinal() {
+        assertEquals(TimeUnit.SECONDS, ApiArguments.toEnum(args("[\"seconds\"]"), 0, TimeUnit.class));
+        assertEquals(TimeUnit.NANOSECONDS, ApiArguments.toEnum(args("[0]"), 0, TimeUnit.class));
+        assertThrows(ApiArgumentException.class, () -> ApiArguments.toEnum(args("[4294967296]"), 0, TimeUnit.class));
+        assertThrows(ApiArgumentException.class, () -> ApiArguments.toEnum(args("[-1]"), 0, TimeUnit.class));
+    }
+
+    @Test
+    void decodersMatchParameterTypes() {
+        ArgumentDecoder[] decoders = ApiArguments.decodersFor(new Class<?>[]{int.class, long.class, float.class, boolean.class});
+        JsonNode values = args("[1, 2, 3.5, true]");
+        assertEquals(1, decoders[0].decode(values, 0));
+        assertEquals(2L, decoders[1].decode(values, 1));
+        assertEquals(3.5f, decoders[2].decode(values, 2));
+        assertEquals(true, decoders[3].decode(values, 3));
+        assertOutOfRange(() -> decoders[0].decode(args("[2147483648]"), 0));
+    }
+
+    private static void assertOutOfRange(Runnable decode) {
+        ApiArgumentException e = assertThrows(ApiArgumentException.class, decode::run);
+        assertTrue(e.getMessage().contains("out of range"), e.getMessage());
+    }
+
+    private static void assertMismatch(Runnable decode, String message) {
+        ApiArgumentException e = assertThrows(ApiArgumentException.class, decode::run);
+        assertTrue(e.getMessage().endsWith(message), e.getMessage());
+    }
+
+    private static JsonNode args(String json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(json, e);
+        }
+    }
+}
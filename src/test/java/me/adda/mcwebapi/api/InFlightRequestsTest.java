@@ -0,0 +1,156 @@
+package me.adda.mcwebapi.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightRequestsTest {
+
+    @Test
+    void rejectsDuplicateId() {
+        InFlightRequests inFlight = new InFlightRequests();
+        assertTrue(inFlight.tryAcquire(0x2a, 2));
+        assertFalse(inFlight.tryAcquire(0x2a, 2));
+        assertEquals(1, inFlight.size());
+    }
+
+    @Test
+    void releasedIdCanBeAcquiredAgain() {
+        InFlightRequests inFlight = new InFlightRequests();
+        assertTrue(inFlight.tryAcquire(7, 1));
+        inFlight.release(7, 1);
+        assertEquals(0, inFlight.size());
+        assertTrue(inFlight.tryAcquire(7, 1));
+        assertEquals(1, inFlight.size());
+    }
+
+    @Test
+    void releasingUnknownIdIsIgnored() {
+        InFlightRequests inFlight = new InFlightRequests();
+        inFlight.tryAcquire(1, 1);
+        inFlight.release(2, 1);
+        inFlight.release(1, 2);
+        assertEquals(1, inFlight.size());
+    }
+
+    @Test
+    void lengthIsPartOfTheId() {
+        InFlightRequests inFlight = new InFlightRequests();
+        long value = InFlightRequests.parseId("1");
+        assertEquals(value, InFlightRequests.parseId("01"));
+        assertTrue(inFlight.tryAcquire(value, 1));
+        assertTrue(inFlight.tryAcquire(value, 2));
+        assertFalse(inFlight.tryAcquire(value, 2));
+
+        inFlight.release(value, 1);
+        assertFalse(inFlight.tryAcquire(value, 2));
+        assertTrue(inFlight.tryAcquire(value, 1));
+    }
+
+    @Test
+    void caseDoesNotMatter() {
+        assertEquals(InFlightRequests.parseId("abcdef"), InFlightRequests.parseId("ABCDEF"));
+        assertEquals(-1L, InFlightRequests.parseId("ffffffffffffffff"));
+    }
+
+    @Test
+    void acceptsOnlyShortAsciiHex() {
+        assertTrue(InFlightRequests.isValidId("0"));
+        assertTrue(InFlightRequests.isValidId("0123456789abcdef"));
+        assertFalse(InFlightRequests.isValidId(null));
+        assertFalse(InFlightRequests.isValidId(""));
+        assertFalse(InFlightRequests.isValidId("0123456789abcdef0"));
+        assertFalse(InFlightRequests.isValidId("12g"));
+        assertFalse(InFlightRequests.isValidId("-1"));
+        // Полноширинная и арабско-индийская цифры
+        assertFalse(InFlightRequests.isValidId("１"));
+        assertFalse(InFlightRequests.isValidId("١"));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        InFlightRequests inFlight = new InFlightRequests();
+        int initial = inFlight.capacity();
+        int count = initial * 4;
+        for (int i = 0; i < count; i++) {
+            assertTrue(inFlight.tryAcquire(i, 4));
+        }
+        assertEquals(count, inFlight.size());
+        assertTrue(inFlight.capacity() > initial);
+
+        for (int i = 0; i < count; i++) {
+            assertFalse(inFlight.tryAcquire(i, 4));
+        }
+        for (int i = 0; i < count; i++) {
+            inFlight.release(i, 4);
+        }
+        assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    void churnDoesNotGrowTheTable() {
+        InFlightRequests inFlight = new InFlightRequests();
+        int initial = inFlight.capacity();
+        // Постоянно несколько запросов в работе, ID растут, как у обычного клиента
+        for (long id = 0; id < 100_000; id++) {
+            assertTrue(inFlight.tryAcquire(id, 8));
+            if (id >= 8) {
+                inFlight.release(id - 8, 8);
+            }
+        }
+        assertEquals(8, inFlight.size());
+        assertEquals(initial, inFlight.capacity());
+    }
+
+    @Test
+    void matchesReferenceSet() {
+        InFlightRequests inFlight = new InFlightRequests();
+        Set<String> reference = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(512);
+            int length = 1 + random.nextInt(3);
+            String key = value + "/" + length;
+            if (random.nextBoolean()) {
+                assertEquals(reference.add(key), inFlight.tryAcquire(value, length));
+            } else if (reference.remove(key)) {
+                inFlight.release(value, length);
+            }
+            assertEquals(reference.size(), inFlight.size());
+        }
+    }
+
+    @Test
+    void releasesFromOtherThreadsWhileAcquiring() throws Exception {
+        InFlightRequests inFlight = new InFlightRequests();
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            int count = 50_000;
+            List<Future<?>> releases = new ArrayList<>();
+            // Захват только из одного потока, как в event loop; освобождение из пула
+            for (int i = 0; i < count; i++) {
+                long id = i;
+                assertTrue(inFlight.tryAcquire(id, 6));
+                releases.add(workers.submit(() -> inFlight.release(id, 6)));
+            }
+            for (Future<?> release : releases) {
+                release.get();
+            }
+            assertEquals(0, inFlight.size());
+            for (int i = 0; i < count; i++) {
+                assertTrue(inFlight.tryAcquire(i, 6));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+}
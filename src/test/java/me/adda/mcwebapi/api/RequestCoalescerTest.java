@@ -0,0 +1,138 @@
+package me.adda.mcwebapi.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final JsonNode ARGS = new ObjectMapper().createArrayNode().add(1);
+
+    private final RequestCoalescer coalescer = RequestCoalescer.getInstance();
+    private final List<RequestCoalescer.Flight> flights = new ArrayList<>();
+    private ApiTaskScheduler.Client first;
+    private ApiTaskScheduler.Client second;
+    private String method;
+
+    @BeforeEach
+    void setUp() {
+        first = ApiTaskScheduler.getInstance().register("first", 1);
+        second = ApiTaskScheduler.getInstance().register("second", 1);
+        // Свой метод на каждый тест, чтобы незавершённые выполнения не пересекались
+        method = "test.method" + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ApiTaskScheduler.getInstance().unregister(first);
+        ApiTaskScheduler.getInstance().unregister(second);
+    }
+
+    @Test
+    void identicalCallsShareOneExecution() {
+        CompletableFuture<Message> execution = new CompletableFuture<>();
+        long now = System.nanoTime();
+        CompletableFuture<Message> leader = coalescer.coalesce(method, ARGS, first, now + SECOND, started(execution));
+        CompletableFuture<Message> follower = coalescer.coalesce(method, ARGS, second, now + SECOND, started(execution));
+        assertEquals(1, flights.size());
+
+        Message response = new Message("RESPONSE", "1");
+        execution.complete(response);
+        assertSame(response, leader.join());
+        assertSame(response, follower.join());
+    }
+
+    @Test
+    void followersExtendTheDeadline() {
+        long now = System.nanoTime();
+        coalescer.coalesce(method, ARGS, first, now + SECOND, queued());
+        coalescer.coalesce(method, ARGS, second, now + 5 * SECOND, queued());
+        coalescer.coalesce(method, ARGS, second, now + 2 * SECOND, queued());
+        assertEquals(1, flights.size());
+        assertEquals(now + 5 * SECOND, flights.get(0).deadline());
+    }
+
+    @Test
+    void dropsExecutionWhenAllWaitersDisconnected() {
+        long now = System.nanoTime();
+        coalescer.coalesce(method, ARGS, first, now + SECOND, queued());
+        coalescer.coalesce(method, ARGS, second, now + SECOND, queued());
+
+        ApiTaskScheduler.getInstance().unregister(first);
+        assertTrue(flights.get(0).start(), "second client is still waiting");
+
+        coalescer.coalesce(method + "2", ARGS, first, now + SECOND, queued());
+        ApiTaskScheduler.getInstance().unregister(second);
+        assertFalse(flights.get(1).start());
+
+        // Следующий такой же запрос выполняется заново
+        ApiTaskScheduler.Client third = ApiTaskScheduler.getInstance().register("third", 1);
+        coalescer.coalesce(method + "2", ARGS, third, now + SECOND, queued());
+        assertEquals(3, flights.size());
+        ApiTaskScheduler.getInstance().unregister(third);
+    }
+
+    @Test
+    void dropsExecutionWhenAllWaitersTimedOut() {
+        long now = System.nanoTime();
+        coalescer.coalesce(method, ARGS, first, now - 1, queued());
+        assertFalse(flights.get(0).start());
+    }
+
+    @Test
+    void expiredExecutionIsNotJoined() {
+        long now = System.nanoTime();
+        coalescer.coalesce(method, ARGS, first, now - 1, queued());
+        coalescer.coalesce(method, ARGS, second, now + SECOND, queued());
+        assertEquals(2, flights.size());
+        assertFalse(flights.get(0).start());
+        assertTrue(flights.get(1).start());
+    }
+
+    @Test
+    void cancelledExecutionIsNotJoined() {
+        long now = System.nanoTime();
+        coalescer.coalesce(method, ARGS, first, now + SECOND, queued());
+        flights.get(0).cancel();
+        coalescer.coalesce(method, ARGS, second, now + SECOND, queued());
+        assertEquals(2, flights.size());
+    }
+
+    @Test
+    void startedExecutionIsJoinedAfterDeadline() {
+        CompletableFuture<Message> execution = new CompletableFuture<>();
+        long now = System.nanoTime();
+        coalescer.coalesce(method, ARGS, first, now + SECOND / 100, started(execution));
+        // Срок первого истёк, но выполнение уже идёт: его результат ещё пригодится
+        flights.get(0).cancel();
+        coalescer.coalesce(method, ARGS, second, now + SECOND, started(execution));
+        assertEquals(1, flights.size());
+    }
+
+    // Выполнение, ожидающее своей очереди в планировщике
+    private Function<RequestCoalescer.Flight, CompletableFuture<Message>> queued() {
+        return flight -> {
+            flights.add(flight);
+            return new CompletableFuture<>();
+        };
+    }
+
+    // Выполнение, которое уже началось
+    private Function<RequestCoalescer.Flight, CompletableFuture<Message>> started(CompletableFuture<Message> result) {
+        return flight -> {
+            flights.add(flight);
+            assertTrue(flight.start());
+            return result;
+        };
+    }
+}
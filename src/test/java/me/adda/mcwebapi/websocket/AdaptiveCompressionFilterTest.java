@@ -0,0 +1,72 @@
+package me.adda.mcwebapi.websocket;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.GeneralSecurityException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveCompressionFilterTest {
+    private static final int MIN_SIZE = 32;
+
+    private EmbeddedChannel channel;
+    private AdaptiveCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        channel = new EmbeddedChannel();
+        filter = new AdaptiveCompressionFilter(channel, ConnectionMetrics.register(channel), MIN_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void compressesLargePlaintextFrames() {
+        assertFalse(filter.mustSkip(frame(new byte[MIN_SIZE * 2])));
+    }
+
+    @Test
+    void compressesAuthenticatedPlaintextChannel() {
+        // Так AuthApiModule.authenticate смотрит шифр: атрибут появляется, но остаётся пустым
+        assertNull(channel.attr(SessionCipher.KEY).get());
+        assertFalse(filter.mustSkip(frame(new byte[MIN_SIZE * 2])));
+    }
+
+    @Test
+    void skipsEncryptedChannel() throws GeneralSecurityException {
+        channel.attr(SessionCipher.KEY).set(new SessionCipher());
+        assertTrue(filter.mustSkip(frame(new byte[MIN_SIZE * 2])));
+    }
+
+    @Test
+    void skipsSmallFrames() {
+        assertTrue(filter.mustSkip(frame(new byte[MIN_SIZE - 1])));
+    }
+
+    @Test
+    void skipsAlreadyCompressedPayload() {
+        byte[] gzip = new byte[MIN_SIZE * 2];
+        gzip[0] = 0x1f;
+        gzip[1] = (byte) 0x8b;
+        assertTrue(filter.mustSkip(frame(gzip)));
+    }
+
+    @Test
+    void skipsWhenDisabled() {
+        filter.setEnabled(false);
+        assertTrue(filter.mustSkip(frame(new byte[MIN_SIZE * 2])));
+    }
+
+    private static WebSocketFrame frame(byte[] payload) {
+        return new BinaryWebSocketFrame(Unpooled.wrappedBuffer(payload));
+    }
+}
@@ -0,0 +1,163 @@
+package me.adda.mcwebapi.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionCipherTest {
+    private static final String KEY = "test-auth-key";
+
+    private SessionCipher cipher;
+    private Peer client;
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException {
+        cipher = new SessionCipher();
+        cipher.initBootstrapKeys(KEY);
+        client = new Peer(KEY, cipher.getBootstrapSalt());
+    }
+
+    @Test
+    void roundTripsBothDirections() throws GeneralSecurityException {
+        byte[] request = "{\"type\":\"REQUEST\"}".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(request, cipher.decrypt(client.seal(request)));
+
+        byte[] response = "{\"type\":\"RESPONSE\"}".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(response, client.open(cipher.encrypt(response)));
+    }
+
+    @Test
+    void outboundNoncesNeverRepeat() throws GeneralSecurityException {
+        byte[] payload = new byte[8];
+        byte[] first = cipher.encrypt(payload);
+        byte[] second = cipher.encrypt(payload);
+        assertFalse(Arrays.equals(Arrays.copyOf(first, 12), Arrays.copyOf(second, 12)));
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    void rejectsTamperedCiphertext() throws GeneralSecurityException {
+        byte[] sealed = client.seal("hello".getBytes(StandardCharsets.UTF_8));
+        sealed[14] ^= 1;
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(sealed));
+    }
+
+    @Test
+    void rejectsTamperedNonce() throws GeneralSecurityException {
+        byte[] sealed = client.seal("hello".getBytes(StandardCharsets.UTF_8));
+        sealed[11] ^= 1;
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(sealed));
+    }
+
+    @Test
+    void rejectsTruncatedFrame() {
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(new byte[20]));
+    }
+
+    @Test
+    void rejectsFrameSealedWithAnotherKey() throws GeneralSecurityException {
+        Peer stranger = new Peer("other-key", cipher.getBootstrapSalt());
+        byte[] sealed = stranger.seal("hello".getBytes(StandardCharsets.UTF_8));
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(sealed));
+    }
+
+    @Test
+    void rejectsReplayedNonce() throws GeneralSecurityException {
+        byte[] sealed = client.seal("once".getBytes(StandardCharsets.UTF_8));
+        cipher.decrypt(sealed);
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(sealed));
+    }
+
+    @Test
+    void rejectsOlderNonce() throws GeneralSecurityException {
+        byte[] older = client.seal("first".getBytes(StandardCharsets.UTF_8));
+        byte[] newer = client.seal("second".getBytes(StandardCharsets.UTF_8));
+        cipher.decrypt(newer);
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(older));
+    }
+
+    @Test
+    void forgedFrameDoesNotAdvanceCounter() throws GeneralSecurityException {
+        byte[] forged = client.seal("forged".getBytes(StandardCharsets.UTF_8));
+        forged[forged.length - 1] ^= 1;
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(forged));
+
+        // Тот же счётчик с верным тегом по-прежнему принимается
+        client.counter--;
+        byte[] genuine = client.seal("genuine".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals("genuine".getBytes(StandardCharsets.UTF_8), cipher.decrypt(genuine));
+    }
+
+    @Test
+    void bootstrapSaltDiffersPerConnection() throws GeneralSecurityException {
+        assertFalse(Arrays.equals(cipher.getBootstrapSalt(), new SessionCipher().getBootstrapSalt()));
+    }
+
+    @Test
+    void switchesToSessionKeysOnlyAfterActivation() throws GeneralSecurityException {
+        byte[] salt = cipher.prepareSessionKeys(KEY);
+        Peer session = new Peer(KEY, salt);
+
+        // Ответ на authenticate ещё под ключом bootstrap
+        byte[] payload = "auth".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(payload, client.open(cipher.encrypt(payload)));
+
+        cipher.activatePendingKeys();
+        assertArrayEquals(payload, session.open(cipher.encrypt(payload)));
+        assertArrayEquals(payload, cipher.decrypt(session.seal(payload)));
+        byte[] stale = client.seal(payload);
+        assertThrows(GeneralSecurityException.class, () -> cipher.decrypt(stale));
+    }
+
+    /**
+     * Client side of the protocol, written from the format described in {@link SessionCipher}.
+     */
+    private static final class Peer {
+        private final SecretKeySpec outbound;
+        private final SecretKeySpec inbound;
+        private long counter;
+
+        Peer(String key, byte[] salt) throws GeneralSecurityException {
+            this.outbound = derive(key, "mcwebapi-c2s", salt);
+            this.inbound = derive(key, "mcwebapi-s2c", salt);
+        }
+
+        byte[] seal(byte[] plaintext) throws GeneralSecurityException {
+            byte[] nonce = new byte[12];
+            long value = counter++;
+            for (int i = 0; i < 8; i++) {
+                nonce[4 + i] = (byte) (value >>> (56 - 8 * i));
+            }
+            Cipher gcm = Cipher.getInstance(SessionCipher.TRANSFORMATION);
+            gcm.init(Cipher.ENCRYPT_MODE, outbound, new GCMParameterSpec(128, nonce));
+            byte[] body = gcm.doFinal(plaintext);
+            byte[] sealed = new byte[nonce.length + body.length];
+            System.arraycopy(nonce, 0, sealed, 0, nonce.length);
+            System.arraycopy(body, 0, sealed, nonce.length, body.length);
+            return sealed;
+        }
+
+        byte[] open(byte[] sealed) throws GeneralSecurityException {
+            Cipher gcm = Cipher.getInstance(SessionCipher.TRANSFORMATION);
+            gcm.init(Cipher.DECRYPT_MODE, inbound, new GCMParameterSpec(128, sealed, 0, 12));
+            return gcm.doFinal(sealed, 12, sealed.length - 12);
+        }
+
+        private static SecretKeySpec derive(String key, String label, byte[] salt) throws GeneralSecurityException {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update(label.getBytes(StandardCharsets.US_ASCII));
+            mac.update(salt);
+            return new SecretKeySpec(mac.doFinal(), "AES");
+        }
+    }
+}